@@ -0,0 +1,48 @@
+package io.github.jtama.openrewrite;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.jtama.openrewrite.graph.DependencyGraph;
+import io.github.jtama.openrewrite.graph.Louvain;
+
+/**
+ * Measures the Louvain community detection of a synthetic graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommunityBenchmark {
+
+    @Param({ "1000", "20000", "100000" })
+    int nodes;
+
+    @Param({ "8" })
+    int fanOut;
+
+    private DependencyGraph graph;
+
+    @Setup
+    public void generate() {
+        graph = SyntheticProjects.graph(nodes, fanOut);
+    }
+
+    @Benchmark
+    public int[] louvain() {
+        return Louvain.communities(graph);
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.jtama.openrewrite;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.jtama.openrewrite.graph.DependencyGraph;
+import io.github.jtama.openrewrite.graph.StronglyConnectedComponents;
+
+/**
+ * Measures the search of the dependency cycles of a synthetic graph. With the default fan-out, the largest graph has
+ * about a million links.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CycleBenchmark {
+
+    @Param({ "20000", "125000" })
+    int nodes;
+
+    @Param({ "8" })
+    int fanOut;
+
+    private DependencyGraph graph;
+
+    @Setup
+    public void generate() {
+        graph = SyntheticProjects.graph(nodes, fanOut);
+    }
+
+    @Benchmark
+    public int[] cycles() {
+        return StronglyConnectedComponents.cycles(graph);
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.jtama.openrewrite;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.jtama.openrewrite.graph.DependencyGraph;
+
+/**
+ * Measures the {@code maxNodes} pruning of a synthetic graph, for each node ranking.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterGraphBenchmark {
+
+    @Param({ "20000", "100000" })
+    int nodes;
+
+    @Param({ "8" })
+    int fanOut;
+
+    @Param({ "100", "2000", "10000" })
+    int maxNodes;
+
+    @Param({ "DEGREE", "WEIGHTED_DEGREE", "PAGE_RANK", "K_CORE" })
+    String nodeRanking;
+
+    private DependencyGraph graph;
+
+    private ProjectAerialViewGenerator recipe;
+
+    @Setup
+    public void generate() {
+        graph = SyntheticProjects.graph(nodes, fanOut);
+        recipe = GraphFixtures.recipe(Map.of("maxNodes", maxNodes, "nodeRanking", nodeRanking));
+    }
+
+    @Benchmark
+    public DependencyGraph filterGraph() {
+        return recipe.filterGraph(graph);
+    }
+}
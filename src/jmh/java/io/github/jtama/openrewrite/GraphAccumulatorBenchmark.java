@@ -0,0 +1,71 @@
+package io.github.jtama.openrewrite;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+import io.github.jtama.openrewrite.model.Link;
+
+/**
+ * Measures the accumulation of references into interned names and a primitive link table, against the layout used
+ * before names were interned: one {@link Link} per edge, indexed by (source, target) names. Run with
+ * {@code -prof gc} to compare the bytes each layout allocates per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphAccumulatorBenchmark {
+
+    @Param({ "50000", "400000" })
+    int references;
+
+    private String[][] names;
+
+    /**
+     * Every link is referenced twice, and the number of classes grows with the number of references.
+     */
+    @Setup
+    public void generate() {
+        names = new String[references][];
+        for (int i = 0; i < references; i++) {
+            int link = i % (references / 2);
+            names[i] = new String[] { "com.acme.Source" + link / 16, "com.acme.Target" + link % 16 + "_" + link / 256 };
+        }
+    }
+
+    @Benchmark
+    public GraphScanAccumulator internedNames() {
+        GraphScanAccumulator graph = new GraphScanAccumulator();
+        for (String[] reference : names) {
+            graph.link(graph.node(reference[0], "com.acme"), graph.node(reference[1], "com.acme"));
+        }
+        return graph;
+    }
+
+    @Benchmark
+    public Map<List<String>, Link> linkObjects() {
+        Map<List<String>, Link> links = new HashMap<>();
+        for (String[] reference : names) {
+            links.computeIfAbsent(List.of(reference[0], reference[1]), key -> new Link(key.get(0), key.get(1), 0))
+                    .incrementWeight();
+        }
+        return links;
+    }
+}
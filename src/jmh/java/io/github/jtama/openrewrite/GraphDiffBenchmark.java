@@ -0,0 +1,51 @@
+package io.github.jtama.openrewrite;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.jtama.openrewrite.graph.DependencyGraph;
+import io.github.jtama.openrewrite.graph.GraphDiff;
+
+/**
+ * Measures the diff of a synthetic graph against a baseline with 5% fewer nodes, whose links mostly differ.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphDiffBenchmark {
+
+    @Param({ "20000", "200000" })
+    int nodes;
+
+    @Param({ "8" })
+    int fanOut;
+
+    private DependencyGraph baseline;
+
+    private DependencyGraph current;
+
+    @Setup
+    public void generate() {
+        baseline = SyntheticProjects.graph(nodes - nodes / 20, fanOut);
+        current = SyntheticProjects.graph(nodes, fanOut);
+    }
+
+    @Benchmark
+    public GraphDiff diff() {
+        return GraphDiff.of(baseline, current);
+    }
+}
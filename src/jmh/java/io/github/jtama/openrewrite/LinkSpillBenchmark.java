@@ -0,0 +1,68 @@
+package io.github.jtama.openrewrite;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.jtama.openrewrite.graph.DependencyGraph;
+import io.github.jtama.openrewrite.graph.LinkTable;
+import io.github.jtama.openrewrite.graph.SymbolTable;
+
+/**
+ * Measures the accumulation of links and the build of the graph, with every link in memory or with a budget that makes
+ * the table spill sorted runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LinkSpillBenchmark {
+
+    @Param({ "2147483647", "100000" })
+    int maxLinksInMemory;
+
+    @Param({ "100000" })
+    int nodes;
+
+    @Param({ "2000000" })
+    int references;
+
+    private int[] sources;
+
+    private int[] targets;
+
+    @Setup
+    public void generate() {
+        Random random = new Random(42);
+        sources = new int[references];
+        targets = new int[references];
+        for (int i = 0; i < references; i++) {
+            sources[i] = random.nextInt(nodes);
+            targets[i] = (int) (nodes * Math.pow(random.nextDouble(), 3));
+        }
+    }
+
+    @Benchmark
+    public DependencyGraph accumulate() {
+        try (LinkTable links = new LinkTable(maxLinksInMemory)) {
+            for (int i = 0; i < references; i++) {
+                links.add(sources[i], targets[i], 1);
+            }
+            return DependencyGraph.of(new SymbolTable(), new SymbolTable(), new int[nodes], new int[nodes],
+                    new int[nodes], links);
+        }
+    }
+}
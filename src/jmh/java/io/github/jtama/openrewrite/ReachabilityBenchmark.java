@@ -0,0 +1,67 @@
+package io.github.jtama.openrewrite;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.jtama.openrewrite.graph.DependencyGraph;
+import io.github.jtama.openrewrite.graph.Reachability;
+import io.github.jtama.openrewrite.graph.Reachability.Direction;
+
+/**
+ * Measures impact queries on a synthetic graph: queries from a different class each time, which the cache cannot
+ * answer, and the same query repeated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReachabilityBenchmark {
+
+    @Param({ "50000" })
+    int nodes;
+
+    @Param({ "8" })
+    int fanOut;
+
+    private Reachability reachability;
+
+    private BitSet[] seeds;
+
+    private int next;
+
+    @Setup
+    public void generate() {
+        DependencyGraph graph = SyntheticProjects.graph(nodes, fanOut);
+        reachability = new Reachability(graph);
+        seeds = new BitSet[1024];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = new BitSet();
+            seeds[i].set((int) ((long) i * nodes / seeds.length));
+        }
+    }
+
+    @Benchmark
+    public int[] uncached() {
+        next = (next + 1) % seeds.length;
+        return reachability.distances(Direction.DEPENDENTS, seeds[next]);
+    }
+
+    @Benchmark
+    public int[] cached() {
+        return reachability.distances(Direction.DEPENDENTS, seeds[0]);
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.jtama.openrewrite;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphLevel;
+import io.github.jtama.openrewrite.graph.DependencyGraph;
+
+/**
+ * Measures the JSON serialization of a synthetic graph, with its package and artifact levels, and its rendering into
+ * {@code template.html}, as plain JSON or compressed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+
+    @Param({ "1000", "20000", "100000" })
+    int nodes;
+
+    @Param({ "8" })
+    int fanOut;
+
+    @Param({ "NONE", "GZIP", "DEFLATE" })
+    String compression;
+
+    private GraphLevel classes;
+
+    private Map<String, GraphLevel> levels;
+
+    private ProjectAerialViewGenerator recipe;
+
+    private Path target;
+
+    @Setup
+    public void generate() throws IOException {
+        DependencyGraph graph = SyntheticProjects.graph(nodes, fanOut);
+        classes = GraphLevel.of(graph);
+        levels = Map.of("package", GraphLevel.of(graph.packages()), "artifact", GraphLevel.of(graph.artifacts()));
+        recipe = "NONE".equals(compression) ? new ProjectAerialViewGenerator()
+                : StandaloneRun.recipe(Map.of("htmlViewCompression", compression));
+        target = Files.createTempFile("class-diagram", ".html");
+    }
+
+    @TearDown
+    public void delete() throws IOException {
+        Files.deleteIfExists(target);
+    }
+
+    @Benchmark
+    public Path renderHtml() throws IOException {
+        recipe.renderHtml(classes, levels, target);
+        return target;
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.jtama.openrewrite;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.SourceFile;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+
+/**
+ * Measures the scanner over a parsed synthetic project. Each {@link SyntheticProjects.Reference} kind exercises one
+ * visitor callback: {@code visitMethodInvocation}, {@code visitFieldAccess}, {@code visitNewClass} or
+ * {@code visitMemberReference}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScannerBenchmark {
+
+    @Param({ "200", "1000" })
+    int classes;
+
+    @Param({ "4", "32" })
+    int fanOut;
+
+    @Param
+    SyntheticProjects.Reference reference;
+
+    private List<SourceFile> sourceFiles;
+
+    private ProjectAerialViewGenerator recipe;
+
+    private ExecutionContext ctx;
+
+    @Setup
+    public void parse() {
+        sourceFiles = GraphFixtures.parse(SyntheticProjects.sources(classes, fanOut, reference));
+        recipe = new ProjectAerialViewGenerator();
+        ctx = GraphFixtures.ctx();
+    }
+
+    @Benchmark
+    public GraphScanAccumulator scan() {
+        GraphScanAccumulator graph = recipe.getInitialValue(ctx);
+        for (SourceFile sourceFile : sourceFiles) {
+            recipe.getScanner(graph).visit(sourceFile, ctx);
+        }
+        return graph;
+    }
+}
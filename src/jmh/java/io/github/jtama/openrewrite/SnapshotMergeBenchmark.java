@@ -0,0 +1,74 @@
+package io.github.jtama.openrewrite;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+import io.github.jtama.openrewrite.graph.GraphSnapshot;
+
+/**
+ * Measures the merge of the graph snapshots of several synthetic projects, which share every class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotMergeBenchmark {
+
+    @Param({ "10", "40" })
+    int snapshots;
+
+    @Param({ "20000" })
+    int nodes;
+
+    @Param({ "8" })
+    int fanOut;
+
+    private Path directory;
+
+    private List<Path> files;
+
+    private final ProjectAerialViewGenerator recipe = GraphFixtures.recipe(Map.of());
+
+    @Setup
+    public void write() throws IOException {
+        directory = Files.createTempDirectory("snapshots");
+        Path snapshot = directory.resolve("project.graph");
+        GraphSnapshot.write(SyntheticProjects.graph(nodes, fanOut), snapshot);
+        files = new ArrayList<>();
+        for (int i = 0; i < snapshots; i++) {
+            files.add(snapshot);
+        }
+    }
+
+    @TearDown
+    public void delete() throws IOException {
+        Files.delete(directory.resolve("project.graph"));
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public GraphScanAccumulator merge() throws IOException {
+        return GraphSnapshotMerge.merge(recipe, files);
+    }
+}
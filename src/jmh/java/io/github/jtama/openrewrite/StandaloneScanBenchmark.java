@@ -0,0 +1,98 @@
+package io.github.jtama.openrewrite;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.tools.ToolProvider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+
+/**
+ * Measures {@link StandaloneScan}, parsing and scanning a synthetic project written to disk, by batches of several
+ * sizes, with its compiled classes on the classpath or with the classes of other batches read from their sources.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StandaloneScanBenchmark {
+
+    @Param({ "2000" })
+    int classes;
+
+    @Param({ "8" })
+    int fanOut;
+
+    @Param({ "64", "256" })
+    int batchSize;
+
+    @Param
+    ParallelGraphScanner.Mode mode;
+
+    @Param({ "true", "false" })
+    boolean compiledClasses;
+
+    private Path directory;
+
+    private Path sourceRoot;
+
+    private Path compiled;
+
+    private ProjectAerialViewGenerator recipe;
+
+    @Setup
+    public void writeAndCompile() throws IOException {
+        directory = Files.createTempDirectory("standalone-scan");
+        sourceRoot = directory.resolve("src/main/java");
+        compiled = directory.resolve("classes");
+        String[] texts = SyntheticProjects.sources(classes, fanOut, SyntheticProjects.Reference.METHOD_INVOCATION);
+        List<String> arguments = new ArrayList<>(List.of("-d", compiled.toString()));
+        for (int i = 0; i < texts.length; i++) {
+            Path file = sourceRoot.resolve("com/acme/p%d/C%d.java".formatted(i % 20, i));
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, texts[i]);
+            arguments.add(file.toString());
+        }
+        if (ToolProvider.getSystemJavaCompiler().run(null, null, null, arguments.toArray(String[]::new)) != 0) {
+            throw new IllegalStateException("Cannot compile the synthetic project");
+        }
+        recipe = StandaloneRun.recipe(Map.of("basePackages", "com.acme"));
+    }
+
+    @TearDown
+    public void delete() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public GraphScanAccumulator parseAndScan() throws IOException {
+        return StandaloneScan.scan(recipe, List.of(sourceRoot), compiledClasses ? List.of(compiled) : List.of(), null,
+                new ParallelGraphScanner(recipe, mode, batchSize), StandaloneRun.ctx());
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.jtama.openrewrite;
+
+import java.util.Random;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+import io.github.jtama.openrewrite.graph.DependencyGraph;
+
+/**
+ * Generates the synthetic projects and graphs the benchmarks run on. Generation is seeded, so every run measures the
+ * same inputs.
+ */
+public final class SyntheticProjects {
+
+    /**
+     * The kind of reference synthetic classes make to each other, each one exercising a different scanner callback.
+     */
+    public enum Reference {
+        METHOD_INVOCATION("        %s.stat();\n"),
+        FIELD_ACCESS("        int f%2$d = %s.COUNT;\n"),
+        NEW_CLASS("        new %s();\n"),
+        MEMBER_REFERENCE("        Runnable r%2$d = %s::stat;\n");
+
+        private final String statement;
+
+        Reference(String statement) {
+            this.statement = statement;
+        }
+    }
+
+    private static final int PACKAGES = 20;
+
+    private SyntheticProjects() {
+    }
+
+    /**
+     * Generates the sources of a project of {@code classes} classes spread over a few packages. Each class references
+     * {@code fanOut} other classes, picked with a skewed distribution so that some classes are far more referenced than
+     * others, as in real projects.
+     */
+    static String[] sources(int classes, int fanOut, Reference reference) {
+        Random random = new Random(42);
+        String[] sources = new String[classes];
+        for (int i = 0; i < classes; i++) {
+            StringBuilder body = new StringBuilder();
+            for (int r = 0; r < fanOut; r++) {
+                body.append(reference.statement.formatted(className(skewed(random, classes)), r));
+            }
+            sources[i] = """
+                    package com.acme.p%d;
+
+                    public class C%d {
+                        public static int COUNT = 0;
+
+                        public static void stat() {
+                        }
+
+                        public void run() {
+                    %s    }
+                    }
+                    """.formatted(i % PACKAGES, i, body);
+        }
+        return sources;
+    }
+
+    /**
+     * Generates a graph of {@code nodes} nodes, each linked to {@code fanOut} other nodes picked with a skewed
+     * distribution.
+     */
+    static DependencyGraph graph(int nodes, int fanOut) {
+        Random random = new Random(42);
+        GraphScanAccumulator graph = new GraphScanAccumulator();
+        for (int i = 0; i < nodes; i++) {
+            graph.declare(graph.node(className(i), "com.acme.p" + i % PACKAGES), "acme-" + i % 3);
+        }
+        for (int source = 0; source < nodes; source++) {
+            for (int r = 0; r < fanOut; r++) {
+                int target = skewed(random, nodes);
+                if (target != source) {
+                    graph.link(source, target, 1 + random.nextInt(5));
+                }
+            }
+        }
+        return graph.toGraph();
+    }
+
+    private static int skewed(Random random, int bound) {
+        return (int) (bound * Math.pow(random.nextDouble(), 3));
+    }
+
+    private static String className(int i) {
+        return "com.acme.p%d.C%d".formatted(i % PACKAGES, i);
+    }
+}
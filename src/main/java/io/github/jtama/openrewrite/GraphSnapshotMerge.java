@@ -0,0 +1,80 @@
+package io.github.jtama.openrewrite;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openrewrite.ExecutionContext;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+import io.github.jtama.openrewrite.graph.DependencyGraph;
+import io.github.jtama.openrewrite.graph.GraphSnapshot;
+import io.github.jtama.openrewrite.metrics.ScanMetrics;
+
+/**
+ * Merges the graph snapshots of several projects into a single graph, and renders it like a recipe run would.
+ * <p>
+ * Usage: {@code GraphSnapshotMerge [option=value...] <output directory> <snapshot>...}, where options are the ones of
+ * {@link ProjectAerialViewGenerator}. The output directory receives the HTML view, the snapshot of the merged graph,
+ * so that merges can be merged again, and the data tables under {@code datatables}.
+ */
+public final class GraphSnapshotMerge {
+
+    private GraphSnapshotMerge() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, Object> options = new LinkedHashMap<>();
+        List<String> paths = new ArrayList<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals > 0 && paths.isEmpty()) {
+                options.put(arg.substring(0, equals), arg.substring(equals + 1));
+            } else {
+                paths.add(arg);
+            }
+        }
+        if (paths.size() < 2) {
+            System.err.println("Usage: GraphSnapshotMerge [option=value...] <output directory> <snapshot>...");
+            System.exit(2);
+        }
+        Path directory = Path.of(paths.getFirst());
+        List<Path> snapshots = paths.subList(1, paths.size()).stream().map(Path::of).toList();
+        ExecutionContext ctx = StandaloneRun.ctx();
+        ProjectAerialViewGenerator recipe = StandaloneRun.recipe(options);
+        render(recipe, merge(recipe, snapshots), ctx, directory);
+        StandaloneRun.writeDataTables(ctx, directory.resolve("datatables"));
+    }
+
+    /**
+     * Sums up graph snapshots: classes found in several snapshots are the same node, and their link weights are
+     * summed. Snapshots are mapped one after the other, so the heap holds the class names of the merged graph, the
+     * node numbering of a single snapshot, and the links up to the recipe's {@code maxLinksInMemory}.
+     *
+     * @param recipe The recipe whose {@code maxLinksInMemory} bounds the links held in memory.
+     * @param snapshots The snapshot files.
+     * @return The merged graph.
+     */
+    public static GraphScanAccumulator merge(ProjectAerialViewGenerator recipe, List<Path> snapshots)
+            throws IOException {
+        GraphScanAccumulator graph = recipe.newAccumulator();
+        for (Path snapshot : snapshots) {
+            graph.merge(GraphSnapshot.open(snapshot));
+        }
+        return graph;
+    }
+
+    /**
+     * Writes the snapshot of the merged graph and renders it with the recipe.
+     */
+    static void render(ProjectAerialViewGenerator recipe, GraphScanAccumulator graph, ExecutionContext ctx,
+            Path directory) throws IOException {
+        DependencyGraph fullGraph = graph.toGraph();
+        graph.deleteSpilledLinks();
+        GraphSnapshot.write(fullGraph, directory.resolve(ProjectAerialViewGenerator.GRAPH_SNAPSHOT));
+        recipe.render(fullGraph, ScanMetrics.DISABLED, ctx, directory);
+    }
+}
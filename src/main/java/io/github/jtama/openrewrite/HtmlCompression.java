@@ -0,0 +1,118 @@
+package io.github.jtama.openrewrite;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The compression of the graph data embedded in the HTML view. The compressed data is base64 encoded, and split in
+ * string literals the view decodes one after the other with the browser's {@code DecompressionStream}.
+ */
+public enum HtmlCompression {
+
+    /**
+     * The gzip format.
+     */
+    GZIP {
+        @Override
+        OutputStream compress(OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+    },
+    /**
+     * The zlib format, which {@code DecompressionStream} calls {@code deflate}.
+     */
+    DEFLATE {
+        @Override
+        OutputStream compress(OutputStream out) {
+            return new DeflaterOutputStream(out, new Deflater(), BUFFER_SIZE);
+        }
+    };
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    abstract OutputStream compress(OutputStream out) throws IOException;
+
+    /**
+     * @return The format name expected by {@code DecompressionStream}.
+     */
+    public String format() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Opens a stream whose bytes are written to {@code writer} compressed and base64 encoded, as JavaScript string
+     * literals separated by commas, without their first opening quote and last closing quote. Closing the stream
+     * completes the encoding but leaves {@code writer} open.
+     *
+     * @param writer The writer of the HTML view.
+     * @param chunkSize The number of base64 characters of each string literal, rounded down to a multiple of 4 so that
+     *        chunks can be decoded on their own.
+     */
+    OutputStream open(Writer writer, int chunkSize) throws IOException {
+        return compress(Base64.getEncoder().wrap(new ChunkedLiterals(writer, Math.max(4, chunkSize - chunkSize % 4))));
+    }
+
+    /**
+     * Writes base64 characters to a writer, closing a string literal and opening the next one every chunk.
+     */
+    private static final class ChunkedLiterals extends OutputStream {
+
+        private final Writer writer;
+
+        private final int chunkSize;
+
+        private final char[] characters = new char[BUFFER_SIZE];
+
+        private int written;
+
+        ChunkedLiterals(Writer writer, int chunkSize) {
+            this.writer = writer;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (written == chunkSize) {
+                writer.write("', '");
+                written = 0;
+            }
+            writer.write(b);
+            written++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (written == chunkSize) {
+                    writer.write("', '");
+                    written = 0;
+                }
+                int count = Math.min(Math.min(length, chunkSize - written), characters.length);
+                // Base64 characters are ASCII.
+                for (int i = 0; i < count; i++) {
+                    characters[i] = (char) bytes[offset + i];
+                }
+                writer.write(characters, 0, count);
+                offset += count;
+                length -= count;
+                written += count;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() {
+            // The writer still has the rest of the view to write.
+        }
+    }
+}
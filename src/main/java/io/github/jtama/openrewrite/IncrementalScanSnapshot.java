@@ -0,0 +1,366 @@
+package io.github.jtama.openrewrite;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.marker.JavaSourceSet;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaSourceFile;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.Statement;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.UnhandledType;
+import io.github.jtama.openrewrite.graph.DependencyGraph;
+
+/**
+ * Persists the contribution of each source file to the graph, so that a later run only visits the files that changed.
+ * <p>
+ * A contribution is keyed by source path and content hash. It holds the nodes the file declared or referenced, the
+ * weights of the links going out of its classes and the types the scanner could not link to. The graph is the sum of
+ * the contributions of the current source files: unchanged files replay their previous contribution, changed ones are
+ * visited again, and deleted ones are simply not part of the new snapshot.
+ * <p>
+ * The links of a file also depend on what the types it uses resolve to. A contribution is therefore only replayed if
+ * the classpath of its source set did not change either, and if none of the files declaring the types it uses changed,
+ * moved or was deleted: a class moving to another package or into an excluded one has its file move too. The current
+ * content of a declaring file is known once it was visited, or read from disk before that. When neither is possible,
+ * the contribution is not trusted and the file is visited again.
+ * <p>
+ * The snapshot is discarded when it was produced by another version of the format or another recipe configuration.
+ * The configuration is only compared once the first source file is looked up, as the base packages may default to the
+ * groupId of the project being scanned.
+ */
+public class IncrementalScanSnapshot {
+
+    private static final int FORMAT_VERSION = 3;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path path;
+
+    private final Supplier<String> effectiveConfiguration;
+
+    /**
+     * The snapshot read from disk, until it is compared with the effective configuration.
+     */
+    private @Nullable Snapshot stored;
+
+    private @Nullable String configuration;
+
+    private Map<String, FileContribution> previous = Map.of();
+
+    private final Map<String, FileContribution> current = new ConcurrentHashMap<>();
+
+    private final AtomicInteger reused = new AtomicInteger();
+
+    private final Path projectDir;
+
+    /**
+     * The source file declaring each type, according to the previous contributions.
+     */
+    private final Map<String, String> declaringFiles = new HashMap<>();
+
+    /**
+     * The content hash of the source files visited during this run, or read from disk, by source path. Files that no
+     * longer exist have an empty hash.
+     */
+    private final Map<String, String> hashes = new ConcurrentHashMap<>();
+
+    /**
+     * The classpath fingerprint of each source set, by marker identifier.
+     */
+    private final Map<UUID, String> classpaths = new ConcurrentHashMap<>();
+
+    private IncrementalScanSnapshot(Path path, Supplier<String> effectiveConfiguration, @Nullable Snapshot stored,
+            Path projectDir) {
+        this.path = path;
+        this.effectiveConfiguration = effectiveConfiguration;
+        this.stored = stored;
+        this.projectDir = projectDir;
+    }
+
+    /**
+     * Loads the snapshot stored at {@code path}, if any.
+     *
+     * @param path The snapshot file.
+     * @param configuration A description of the recipe options that change the contributions, as effective when the
+     *        first source file is looked up.
+     * @param projectDir The directory source paths are relative to.
+     * @return The snapshot, without any previous contribution if the file does not exist or does not match.
+     */
+    public static IncrementalScanSnapshot load(Path path, Supplier<String> configuration, Path projectDir) {
+        Snapshot stored = null;
+        if (Files.isRegularFile(path)) {
+            try {
+                Snapshot snapshot = MAPPER.readValue(path.toFile(), Snapshot.class);
+                if (snapshot.version() == FORMAT_VERSION) {
+                    stored = snapshot;
+                }
+            } catch (IOException e) {
+                // An unreadable snapshot only means a full scan.
+            }
+        }
+        return new IncrementalScanSnapshot(path, configuration, stored, projectDir);
+    }
+
+    /**
+     * Resolves the effective configuration, and keeps the stored contributions if they were produced with it.
+     */
+    private synchronized String configuration() {
+        if (configuration == null) {
+            configuration = effectiveConfiguration.get();
+            if (stored != null && configuration.equals(stored.configuration())) {
+                previous = stored.files();
+                previous.forEach((sourcePath, contribution) -> contribution.declaredTypes()
+                        .forEach(type -> declaringFiles.put(type, sourcePath)));
+            }
+            stored = null;
+        }
+        return configuration;
+    }
+
+    /**
+     * Computes the content hash of a source file from its tree, as printed, so that it reflects the changes made by the
+     * recipes that ran before this one. An unchanged tree prints back to the content of the file on disk.
+     *
+     * @param sourceFile The source file.
+     * @return The content hash.
+     */
+    public static String hash(SourceFile sourceFile) {
+        return hash(sourceFile.printAll().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return A fingerprint of the classpath of the source set of a source file: the coordinates of its dependencies and
+     *         the types they hold. It is empty when the source set is unknown.
+     */
+    public String classpath(SourceFile sourceFile) {
+        return sourceFile.getMarkers().findFirst(JavaSourceSet.class)
+                .map(sourceSet -> classpaths.computeIfAbsent(sourceSet.getId(), id -> {
+                    StringBuilder fingerprint = new StringBuilder();
+                    new TreeSet<>(sourceSet.getGavToTypes().keySet())
+                            .forEach(gav -> fingerprint.append(gav).append('\n'));
+                    sourceSet.getClasspath().stream()
+                            .map(JavaType.FullyQualified::getFullyQualifiedName)
+                            .sorted()
+                            .forEach(type -> fingerprint.append(type).append('\n'));
+                    return hash(fingerprint.toString().getBytes(StandardCharsets.UTF_8));
+                }))
+                .orElse("");
+    }
+
+    /**
+     * Records the content hash of a source file visited during this run, before its contribution is looked up.
+     */
+    public void visited(String sourcePath, String hash) {
+        hashes.put(sourcePath, hash);
+    }
+
+    /**
+     * @return The contribution recorded by the previous run for this source file, or {@code null} if the file is new or
+     *         changed since, if its classpath changed, or if a file declaring a type it uses changed.
+     */
+    public FileContribution previous(String sourcePath, String hash, String classpath) {
+        configuration();
+        FileContribution contribution = previous.get(sourcePath);
+        if (contribution != null && contribution.hash().equals(hash) && contribution.classpath().equals(classpath)
+                && !dependenciesChanged(sourcePath, contribution)) {
+            reused.incrementAndGet();
+            return contribution;
+        }
+        return null;
+    }
+
+    private boolean dependenciesChanged(String sourcePath, FileContribution contribution) {
+        for (String type : contribution.referencedTypes()) {
+            String declaringFile = declaringFiles.get(type);
+            if (declaringFile != null && !declaringFile.equals(sourcePath)
+                    && !currentHash(declaringFile).equals(previous.get(declaringFile).hash())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The hash of a source file visited during this run or, until it is, of the file on disk, which an unchanged
+     *         tree prints back to. Empty if the file is neither, either because it was deleted or because it is only
+     *         known once visited.
+     */
+    private String currentHash(String sourcePath) {
+        return hashes.computeIfAbsent(sourcePath, p -> {
+            Path file = projectDir.resolve(p);
+            try {
+                return Files.isRegularFile(file) ? hash(Files.readAllBytes(file)) : "";
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Records the contribution of a source file for the next run.
+     */
+    public void record(String sourcePath, FileContribution contribution) {
+        current.put(sourcePath, contribution);
+    }
+
+    /**
+     * @return The number of source files whose previous contribution was reused.
+     */
+    public int reused() {
+        return reused.get();
+    }
+
+    /**
+     * Writes the contributions recorded during this run, replacing the previous snapshot.
+     */
+    public void write() throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        MAPPER.writeValue(path.toFile(), new Snapshot(FORMAT_VERSION, configuration(), new TreeMap<>(current)));
+    }
+
+    record Snapshot(int version, String configuration, Map<String, FileContribution> files) {
+    }
+
+    /**
+     * What a single source file adds to the graph.
+     *
+     * @param hash The content hash of the source file.
+     * @param classpath The fingerprint of the classpath the source file was compiled against.
+     * @param excluded Whether the source file was excluded from the scan.
+     * @param declaredTypes The fully qualified names of the types declared by the source file, nested ones included.
+     * @param referencedTypes The fully qualified names of the types the source file uses, in excluded packages too.
+     * @param nodes The nodes declared or referenced by the source file.
+     * @param links The links going out of the source file classes.
+     * @param unhandledTypes The types the scanner did not know how to link to, with their number of occurrences.
+     */
+    public record FileContribution(String hash, String classpath, boolean excluded, List<String> declaredTypes,
+            List<String> referencedTypes, List<ContributedNode> nodes, List<ContributedLink> links,
+            List<ContributedUnhandledType> unhandledTypes) {
+
+        /**
+         * Extracts the contribution of a source file from the partial graph it was scanned into.
+         */
+        public static FileContribution of(String hash, String classpath, boolean excluded, JavaSourceFile sourceFile,
+                GraphScanAccumulator partial) {
+            DependencyGraph graph = partial.toGraph();
+            List<ContributedNode> nodes = new ArrayList<>(graph.nodeCount());
+            for (int node = 0; node < graph.nodeCount(); node++) {
+                nodes.add(new ContributedNode(graph.className(node), graph.packageName(node), graph.artifactId(node)));
+            }
+            List<ContributedLink> links = new ArrayList<>(graph.linkCount());
+            graph.forEachLink((source, target, weight) -> links.add(new ContributedLink(source, target, weight)));
+            List<String> declaredTypes = declaredTypes(sourceFile);
+            Set<String> referencedTypes = new TreeSet<>();
+            if (!excluded) {
+                partial.referencedTypes.forEach(referencedTypes::add);
+                sourceFile.getTypesInUse().getTypesInUse().forEach(type -> {
+                    if (type instanceof JavaType.FullyQualified fullyQualified) {
+                        referencedTypes.add(fullyQualified.getFullyQualifiedName());
+                    }
+                });
+                sourceFile.getTypesInUse().getUsedMethods()
+                        .forEach(method -> referencedTypes.add(method.getDeclaringType().getFullyQualifiedName()));
+                declaredTypes.forEach(referencedTypes::remove);
+            }
+            List<ContributedUnhandledType> unhandledTypes = new ArrayList<>();
+            partial.unhandledTypes.entries().forEach(entry -> unhandledTypes.add(new ContributedUnhandledType(
+                    entry.key().kind(), entry.key().signature(), entry.count())));
+            return new FileContribution(hash, classpath, excluded, declaredTypes, List.copyOf(referencedTypes), nodes,
+                    links, unhandledTypes);
+        }
+
+        private static List<String> declaredTypes(JavaSourceFile sourceFile) {
+            List<String> declaredTypes = new ArrayList<>();
+            Deque<J.ClassDeclaration> classes = new ArrayDeque<>(sourceFile.getClasses());
+            while (!classes.isEmpty()) {
+                J.ClassDeclaration classDecl = classes.pop();
+                if (classDecl.getType() != null) {
+                    declaredTypes.add(classDecl.getType().getFullyQualifiedName());
+                }
+                for (Statement statement : classDecl.getBody().getStatements()) {
+                    if (statement instanceof J.ClassDeclaration nested) {
+                        classes.push(nested);
+                    }
+                }
+            }
+            return declaredTypes;
+        }
+
+        /**
+         * Adds this contribution to a graph.
+         *
+         * @param graph The graph.
+         * @param sourcePath The path of the source file, reported with the unhandled types.
+         */
+        public void replay(GraphScanAccumulator graph, String sourcePath) {
+            int[] renumbered = new int[nodes.size()];
+            for (int i = 0; i < renumbered.length; i++) {
+                ContributedNode node = nodes.get(i);
+                renumbered[i] = graph.node(node.className(), node.packageName());
+                if (node.artifactId() != null) {
+                    graph.declare(renumbered[i], node.artifactId());
+                }
+            }
+            for (ContributedLink link : links) {
+                graph.link(renumbered[link.source()], renumbered[link.target()], link.weight());
+            }
+            for (ContributedUnhandledType type : unhandledTypes) {
+                graph.unhandledTypes.add(new UnhandledType(type.kind(), type.signature()), sourcePath, type.count());
+            }
+        }
+    }
+
+    /**
+     * A node of a contribution. The artifact is only set if the source file declares the class.
+     */
+    public record ContributedNode(String className, String packageName, String artifactId) {
+    }
+
+    /**
+     * A link of a contribution, between indexes of the contribution nodes.
+     */
+    public record ContributedLink(int source, int target, int weight) {
+    }
+
+    /**
+     * A type of a contribution the scanner did not know how to link to.
+     */
+    public record ContributedUnhandledType(String kind, String signature, long count) {
+    }
+}
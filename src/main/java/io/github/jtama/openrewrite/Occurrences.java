@@ -0,0 +1,97 @@
+package io.github.jtama.openrewrite;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how many times each key was met while scanning, keeping the paths of the first few source files it was met
+ * in, so that a data table can report a key once instead of once per occurrence.
+ * <p>
+ * Counting is thread-safe and, once a key is known, does not allocate.
+ *
+ * @param <K> The type of the keys.
+ */
+final class Occurrences<K extends Comparable<K>> {
+
+    /**
+     * The number of source paths kept for each key.
+     */
+    static final int MAX_SAMPLES = 3;
+
+    /**
+     * @param key The key.
+     * @param count The number of times it was met.
+     * @param samples The distinct source paths it was first met in, at most {@link #MAX_SAMPLES}.
+     */
+    record Entry<K>(K key, long count, List<String> samples) {
+    }
+
+    private static final class Counter {
+
+        final LongAdder count = new LongAdder();
+
+        // Guarded by this.
+        final List<String> samples = new ArrayList<>(MAX_SAMPLES);
+
+        /**
+         * Set once every sample is known, so that later occurrences are counted without locking.
+         */
+        volatile boolean sampled;
+
+        void sample(String sourcePath) {
+            if (sampled) {
+                return;
+            }
+            synchronized (this) {
+                if (samples.size() < MAX_SAMPLES && !samples.contains(sourcePath)) {
+                    samples.add(sourcePath);
+                    sampled = samples.size() == MAX_SAMPLES;
+                }
+            }
+        }
+
+        synchronized List<String> samples() {
+            return List.copyOf(samples);
+        }
+    }
+
+    private final Map<K, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Records an occurrence of a key.
+     *
+     * @param key The key.
+     * @param sourcePath The path of the source file it was met in.
+     */
+    void add(K key, String sourcePath) {
+        add(key, sourcePath, 1);
+    }
+
+    /**
+     * Records occurrences of a key met in the same source file.
+     *
+     * @param key The key.
+     * @param sourcePath The path of the source file it was met in.
+     * @param count The number of occurrences.
+     */
+    void add(K key, String sourcePath, long count) {
+        Counter counter = counters.computeIfAbsent(key, k -> new Counter());
+        counter.count.add(count);
+        counter.sample(sourcePath);
+    }
+
+    /**
+     * @return The keys met so far, the most frequent first, then by key.
+     */
+    List<Entry<K>> entries() {
+        List<Entry<K>> entries = new ArrayList<>(counters.size());
+        counters.forEach((key, counter) -> entries.add(new Entry<>(key, counter.count.sum(), counter.samples())));
+        entries.sort(Comparator.comparingLong((Entry<K> entry) -> entry.count()).reversed()
+                .thenComparing(Entry::key));
+        return entries;
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.jtama.openrewrite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tells whether a package belongs to one of the base packages, that is whether it is a base package or one of its
+ * sub-packages: {@code com.acme} matches {@code com.acme} and {@code com.acme.order}, but neither {@code com.acmeish} nor
+ * {@code org.com.acme}.
+ * <p>
+ * The base packages are compiled once into a character trie whose states are arrays, and the verdicts are cached per
+ * package name, as the same packages are looked up for every reference of a source file. The cache is bounded: once
+ * full, new package names are matched against the trie without being cached.
+ */
+public final class PackageMatcher {
+
+    private static final int MAX_CACHED_VERDICTS = 16_384;
+
+    private final List<String> packages;
+
+    /**
+     * The characters leaving each state, sorted.
+     */
+    private final char[][] labels;
+
+    /**
+     * The states reached by each character of {@link #labels}.
+     */
+    private final int[][] targets;
+
+    /**
+     * Whether a base package ends at each state.
+     */
+    private final boolean[] terminals;
+
+    private final Map<String, Boolean> verdicts = new ConcurrentHashMap<>();
+
+    private PackageMatcher(List<String> packages, char[][] labels, int[][] targets, boolean[] terminals) {
+        this.packages = packages;
+        this.labels = labels;
+        this.targets = targets;
+        this.terminals = terminals;
+    }
+
+    /**
+     * @param packages The base packages. Blank ones are ignored, as well as a trailing {@code .} or {@code .*}.
+     */
+    public static PackageMatcher of(List<String> packages) {
+        List<String> normalized = new ArrayList<>();
+        for (String basePackage : packages) {
+            String trimmed = basePackage.trim();
+            if (trimmed.endsWith(".*")) {
+                trimmed = trimmed.substring(0, trimmed.length() - 2);
+            } else if (trimmed.endsWith(".")) {
+                trimmed = trimmed.substring(0, trimmed.length() - 1);
+            }
+            if (!trimmed.isEmpty() && !normalized.contains(trimmed)) {
+                normalized.add(trimmed);
+            }
+        }
+        List<char[]> labels = new ArrayList<>();
+        List<int[]> targets = new ArrayList<>();
+        List<Boolean> terminals = new ArrayList<>();
+        labels.add(new char[0]);
+        targets.add(new int[0]);
+        terminals.add(false);
+        for (String basePackage : normalized) {
+            int state = 0;
+            for (int i = 0; i < basePackage.length(); i++) {
+                char c = basePackage.charAt(i);
+                char[] stateLabels = labels.get(state);
+                int index = Arrays.binarySearch(stateLabels, c);
+                if (index >= 0) {
+                    state = targets.get(state)[index];
+                    continue;
+                }
+                int next = labels.size();
+                labels.add(new char[0]);
+                targets.add(new int[0]);
+                terminals.add(false);
+                int insertion = -index - 1;
+                labels.set(state, insert(stateLabels, insertion, c));
+                targets.set(state, insert(targets.get(state), insertion, next));
+                state = next;
+            }
+            terminals.set(state, true);
+        }
+        boolean[] terminalStates = new boolean[terminals.size()];
+        for (int state = 0; state < terminalStates.length; state++) {
+            terminalStates[state] = terminals.get(state);
+        }
+        return new PackageMatcher(List.copyOf(normalized), labels.toArray(char[][]::new), targets.toArray(int[][]::new),
+                terminalStates);
+    }
+
+    /**
+     * @return The base packages, as matched.
+     */
+    public List<String> packages() {
+        return packages;
+    }
+
+    public boolean isEmpty() {
+        return packages.isEmpty();
+    }
+
+    /**
+     * @return Whether the package is one of the base packages or one of their sub-packages.
+     */
+    public boolean matches(String packageName) {
+        Boolean verdict = verdicts.get(packageName);
+        if (verdict == null) {
+            verdict = match(packageName);
+            if (verdicts.size() < MAX_CACHED_VERDICTS) {
+                verdicts.put(packageName, verdict);
+            }
+        }
+        return verdict;
+    }
+
+    private boolean match(String packageName) {
+        int state = 0;
+        for (int i = 0;; i++) {
+            // A base package matches when it ends on a segment boundary of the package name.
+            if (terminals[state] && (i == packageName.length() || packageName.charAt(i) == '.')) {
+                return true;
+            }
+            if (i == packageName.length()) {
+                return false;
+            }
+            int index = Arrays.binarySearch(labels[state], packageName.charAt(i));
+            if (index < 0) {
+                return false;
+            }
+            state = targets[state][index];
+        }
+    }
+
+    private static char[] insert(char[] array, int index, char value) {
+        char[] inserted = new char[array.length + 1];
+        System.arraycopy(array, 0, inserted, 0, index);
+        inserted[index] = value;
+        System.arraycopy(array, index, inserted, index + 1, array.length - index);
+        return inserted;
+    }
+
+    private static int[] insert(int[] array, int index, int value) {
+        int[] inserted = new int[array.length + 1];
+        System.arraycopy(array, 0, inserted, 0, index);
+        inserted[index] = value;
+        System.arraycopy(array, index, inserted, index + 1, array.length - index);
+        return inserted;
+    }
+}
@@ -0,0 +1,154 @@
+package io.github.jtama.openrewrite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.TreeVisitor;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+
+/**
+ * Runs the {@link ProjectAerialViewGenerator} scanner over source files in parallel.
+ * <p>
+ * Source files are split in contiguous batches. Each batch is scanned by one task into its own partial graph, so
+ * scanners never contend on the accumulator, and partial graphs are merged in batch order once every task is done.
+ * The result is the same as the one of a serial scan of the source files, in the same order. Batches may also be parsed
+ * by the tasks scanning them, see {@link #parseAndScan(List, Function, GraphScanAccumulator, ExecutionContext)}.
+ */
+public class ParallelGraphScanner {
+
+    /**
+     * The kind of threads the scanner runs on.
+     */
+    public enum Mode {
+        /**
+         * A {@link ForkJoinPool} sized after the available processors.
+         */
+        FORK_JOIN,
+        /**
+         * One virtual thread per batch.
+         */
+        VIRTUAL_THREADS
+    }
+
+    private static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final ProjectAerialViewGenerator recipe;
+
+    private final Mode mode;
+
+    private final int batchSize;
+
+    public ParallelGraphScanner(ProjectAerialViewGenerator recipe) {
+        this(recipe, Mode.FORK_JOIN, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param recipe The recipe whose scanner is run.
+     * @param mode The kind of threads to scan on.
+     * @param batchSize The number of source files scanned by a single task.
+     */
+    public ParallelGraphScanner(ProjectAerialViewGenerator recipe, Mode mode, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be strictly positive, was " + batchSize);
+        }
+        this.recipe = recipe;
+        this.mode = mode;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Scans the source files into {@code graph}.
+     *
+     * @param sourceFiles The source files to scan.
+     * @param graph The accumulator receiving the partial graphs.
+     * @param ctx The execution context, shared by every scanner.
+     * @return {@code graph}.
+     */
+    public GraphScanAccumulator scan(List<? extends SourceFile> sourceFiles, GraphScanAccumulator graph,
+            ExecutionContext ctx) {
+        return scan(sourceFiles, batch -> batch, null, graph, ctx);
+    }
+
+    /**
+     * Parses and scans source files into {@code graph}. Each task parses a batch, scans it and drops its trees, and at
+     * most one batch per available processor is in progress, so the heap holds the trees of a few batches at a time
+     * whatever the number of source files.
+     *
+     * @param inputs The source files to parse, typically their paths.
+     * @param parser Parses a batch of inputs, in order. It is called concurrently for different batches.
+     * @param graph The accumulator receiving the partial graphs.
+     * @param ctx The execution context, shared by every scanner.
+     * @return {@code graph}.
+     */
+    public <T> GraphScanAccumulator parseAndScan(List<T> inputs, Function<List<T>, List<SourceFile>> parser,
+            GraphScanAccumulator graph, ExecutionContext ctx) {
+        return scan(inputs, parser, new Semaphore(Runtime.getRuntime().availableProcessors()), graph, ctx);
+    }
+
+    private <T> GraphScanAccumulator scan(List<T> inputs, Function<List<T>, ? extends List<? extends SourceFile>> parser,
+            @Nullable Semaphore inProgress, GraphScanAccumulator graph, ExecutionContext ctx) {
+        // Every partial graph may be done before the first one is merged, so each one holds its share of the links.
+        int batches = (inputs.size() + batchSize - 1) / batchSize;
+        try (ExecutorService executor = newExecutor()) {
+            List<Future<GraphScanAccumulator>> partials = new ArrayList<>();
+            for (int from = 0; from < inputs.size(); from += batchSize) {
+                List<T> batch = inputs.subList(from, Math.min(from + batchSize, inputs.size()));
+                partials.add(executor.submit(() -> {
+                    if (inProgress == null) {
+                        return scanBatch(parser.apply(batch), graph.partial(batches), ctx);
+                    }
+                    inProgress.acquire();
+                    try {
+                        return scanBatch(parser.apply(batch), graph.partial(batches), ctx);
+                    } finally {
+                        inProgress.release();
+                    }
+                }));
+            }
+            for (int batch = 0; batch < partials.size(); batch++) {
+                GraphScanAccumulator partial = partials.get(batch).get();
+                graph.merge(partial);
+                // Partial graphs are dropped once merged.
+                partial.deleteSpilledLinks();
+                partials.set(batch, null);
+                if (graph.metrics.isEnabled()) {
+                    graph.metrics.scanned(Math.min(batchSize, inputs.size() - batch * batchSize), graph.nodeCount(),
+                            graph.linkCount());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scanning source files", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to scan source files", e.getCause());
+        }
+        return graph;
+    }
+
+    private GraphScanAccumulator scanBatch(List<? extends SourceFile> batch, GraphScanAccumulator partial,
+            ExecutionContext ctx) {
+        for (SourceFile sourceFile : batch) {
+            TreeVisitor<?, ExecutionContext> scanner = recipe.getScanner(partial);
+            scanner.visit(sourceFile, ctx);
+        }
+        return partial;
+    }
+
+    private ExecutorService newExecutor() {
+        return switch (mode) {
+            case FORK_JOIN -> new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+            case VIRTUAL_THREADS -> Executors.newVirtualThreadPerTaskExecutor();
+        };
+    }
+}
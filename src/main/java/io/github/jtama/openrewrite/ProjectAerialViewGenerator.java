@@ -1,28 +1,38 @@
 package io.github.jtama.openrewrite;
 
 import static java.util.Collections.emptyList;
-import static java.util.function.Predicate.not;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 import org.jetbrains.annotations.NotNull;
-import org.openrewrite.Cursor;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.DataTable;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.Option;
 import org.openrewrite.ScanningRecipe;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
 import org.openrewrite.TreeVisitor;
 import org.openrewrite.internal.StringUtils;
 import org.openrewrite.java.JavaIsoVisitor;
@@ -31,15 +41,45 @@ import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaSourceFile;
 import org.openrewrite.java.tree.JavaType;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
 
+import io.github.jtama.openrewrite.graph.DependencyGraph;
+import io.github.jtama.openrewrite.graph.ForceLayout;
+import io.github.jtama.openrewrite.graph.GraphDiff;
+import io.github.jtama.openrewrite.graph.GraphSnapshot;
+import io.github.jtama.openrewrite.graph.LinkTable;
+import io.github.jtama.openrewrite.graph.Louvain;
+import io.github.jtama.openrewrite.graph.NodeRanking;
+import io.github.jtama.openrewrite.graph.Reachability;
+import io.github.jtama.openrewrite.graph.Reachability.Direction;
+import io.github.jtama.openrewrite.graph.StronglyConnectedComponents;
+import io.github.jtama.openrewrite.graph.StronglyConnectedComponents.Cycle;
+import io.github.jtama.openrewrite.graph.SymbolTable;
+import io.github.jtama.openrewrite.metrics.ScanMetrics;
+import io.github.jtama.openrewrite.metrics.ScanMetrics.Callback;
+import io.github.jtama.openrewrite.metrics.ScanMetrics.Counter;
+import io.github.jtama.openrewrite.metrics.ScanMetrics.Phase;
+import io.github.jtama.openrewrite.metrics.SourceFileScanEvent;
+import io.github.jtama.openrewrite.model.AggregatedLinksReport;
+import io.github.jtama.openrewrite.model.AggregatedNodesReport;
+import io.github.jtama.openrewrite.model.CyclesReport;
+import io.github.jtama.openrewrite.model.GraphDiffLinksReport;
+import io.github.jtama.openrewrite.model.GraphDiffNodesReport;
 import io.github.jtama.openrewrite.model.JavaSourceFileExcludedReport;
 import io.github.jtama.openrewrite.model.JavaTypesNotHandledReport;
+import io.github.jtama.openrewrite.model.LayoutReport;
 import io.github.jtama.openrewrite.model.Link;
 import io.github.jtama.openrewrite.model.LinksReport;
 import io.github.jtama.openrewrite.model.Node;
 import io.github.jtama.openrewrite.model.NodesReport;
- 
+import io.github.jtama.openrewrite.model.ReachabilityReport;
+import io.github.jtama.openrewrite.model.ScanMetricsReport;
+
 /**
  * An OpenRewrite recipe that scans a Java project and generates it's internal dependency graph
  */
@@ -48,6 +88,10 @@ public class ProjectAerialViewGenerator extends ScanningRecipe<ProjectAerialView
     @Option(displayName = "Maximum nodes", description = "The maximum number of nodes to display in the graph. We will try to retain the largest nodes.", required = false)
     private Integer maxNodes;
 
+    @Option(displayName = "Node ranking", description = "How nodes are ranked to retain the largest ones when the graph has more than `maxNodes` nodes. Defaults to `DEGREE`.", valid = {
+            "DEGREE", "WEIGHTED_DEGREE", "PAGE_RANK", "K_CORE" }, example = "PAGE_RANK", required = false)
+    private String nodeRanking;
+
     @Option(displayName = "Base packages", description = "A list of colon separated base packages that will be considered as ***your code***. If empty, the project `groupId` will be used.", example = "com.yourorg.project:com.yourorg.app", required = false)
     private String basePackages;
 
@@ -57,7 +101,65 @@ public class ProjectAerialViewGenerator extends ScanningRecipe<ProjectAerialView
     @Option(displayName = "Generate HTML view", description = "Should the recipe generate an HTML view of the graph. Defaults to `true`.", example = "true", required = false)
     private Boolean generateHTMLView;
 
-    private List<String> packages = new ArrayList<>();
+    @Option(displayName = "Incremental snapshot", description = "A file, relative to the project directory, where the contribution of each source file to the graph is stored. When set, source files that did not change since the previous run are not scanned again.", example = "target/project-graph-snapshot.json", required = false)
+    private String incrementalSnapshot;
+
+    @Option(displayName = "Layout iterations", description = "When set, the HTML view opens on a force-directed layout precomputed with this number of iterations, instead of running the layout in the browser.", example = "300", required = false)
+    private Integer layoutIterations;
+
+    @Option(displayName = "Collect metrics", description = "Should the recipe record scanner callback counts and times, cache hits, graph growth and generation times in the scan metrics data table. Defaults to `false`.", example = "true", required = false)
+    private Boolean collectMetrics;
+
+    @Option(displayName = "Graph snapshot", description = "Should the recipe write the whole graph in a compact binary file, `class-diagram.graph`, next to the HTML view. Snapshots of several projects can then be merged into a single graph. Defaults to `false`.", example = "true", required = false)
+    private Boolean graphSnapshot;
+
+    @Option(displayName = "Baseline snapshot", description = "A graph snapshot, relative to the project directory, written by a previous run with `graphSnapshot`. When set, the classes, packages, artifacts and links added, removed or reweighted since this baseline are reported in the graph diff data tables and highlighted in the HTML view.", example = "baseline/class-diagram.graph", required = false)
+    private String baselineSnapshot;
+
+    @Option(displayName = "Impact of", description = "A list of colon separated class names, packages or artifact identifiers. The classes depending on them, directly or not, are listed in the reachability data table.", example = "com.yourorg.project.Order:com.yourorg.project.billing", required = false)
+    private String impactOf;
+
+    @Option(displayName = "Dependencies of", description = "A list of colon separated class names, packages or artifact identifiers. The classes they depend on, directly or not, are listed in the reachability data table.", example = "my-module", required = false)
+    private String dependenciesOf;
+
+    @Option(displayName = "Restrict to queries", description = "Should the HTML view and the graph data tables only hold the classes reached by `impactOf` and `dependenciesOf`. Defaults to `false`.", example = "true", required = false)
+    private Boolean restrictToQueries;
+
+    @Option(displayName = "Maximum links in memory", description = "When set, the links found while scanning are held in memory up to this number, then spilled to sorted temporary files merged when the graph is generated. This bounds the heap needed by very large scans.", example = "5000000", required = false)
+    private Integer maxLinksInMemory;
+
+    @Option(displayName = "Excluded source files by package", description = "Should the excluded source files data table hold one row per package, with the number of excluded source files and a few of their paths, instead of one row per source file. Defaults to `false`.", example = "true", required = false)
+    private Boolean excludedSourceFilesByPackage;
+
+    @Option(displayName = "HTML view compression", description = "When set, the graph data is embedded in the HTML view compressed and base64 encoded, instead of as plain JSON, and decompressed by the browser when the view opens.", valid = {
+            "GZIP", "DEFLATE" }, example = "GZIP", required = false)
+    private String htmlViewCompression;
+
+    @Option(displayName = "HTML view chunk size", description = "When set with `htmlViewCompression`, the compressed graph data is split in string literals of this number of characters, decoded one after the other.", example = "1048576", required = false)
+    private Integer htmlViewChunkSize;
+
+    /**
+     * The file name of the graph snapshot, in the project directory.
+     */
+    static final String GRAPH_SNAPSHOT = "class-diagram.graph";
+
+    /**
+     * The layout is seeded so that the same graph always opens the same way.
+     */
+    private static final long LAYOUT_SEED = 42;
+
+    /**
+     * Beyond this number of nodes in the shown level, the HTML view draws on a canvas: browsers slow down with one SVG
+     * element per node and link.
+     */
+    static final int CANVAS_NODES = 2_000;
+
+    /**
+     * Shared by every render, the generator must not close the writer the template is written to.
+     */
+    private static final ObjectMapper MAPPER = JsonMapper.builder().disable(StreamWriteFeature.AUTO_CLOSE_TARGET).build();
+
+    private volatile PackageMatcher packageMatcher;
 
     transient NodesReport nodesReport = new NodesReport(this);
 
@@ -67,6 +169,22 @@ public class ProjectAerialViewGenerator extends ScanningRecipe<ProjectAerialView
 
     transient JavaSourceFileExcludedReport javaSourceFileExcludedReport = new JavaSourceFileExcludedReport(this);
 
+    transient LayoutReport layoutReport = new LayoutReport(this);
+
+    transient AggregatedNodesReport aggregatedNodesReport = new AggregatedNodesReport(this);
+
+    transient AggregatedLinksReport aggregatedLinksReport = new AggregatedLinksReport(this);
+
+    transient ScanMetricsReport scanMetricsReport = new ScanMetricsReport(this);
+
+    transient GraphDiffNodesReport graphDiffNodesReport = new GraphDiffNodesReport(this);
+
+    transient GraphDiffLinksReport graphDiffLinksReport = new GraphDiffLinksReport(this);
+
+    transient CyclesReport cyclesReport = new CyclesReport(this);
+
+    transient ReachabilityReport reachabilityReport = new ReachabilityReport(this);
+
     public Boolean includeTests() {
         return includeTests != null && includeTests;
     }
@@ -75,12 +193,99 @@ public class ProjectAerialViewGenerator extends ScanningRecipe<ProjectAerialView
         return generateHTMLView == null || generateHTMLView;
     }
 
+    public Boolean collectMetrics() {
+        return collectMetrics != null && collectMetrics;
+    }
+
+    public Boolean graphSnapshot() {
+        return graphSnapshot != null && graphSnapshot;
+    }
+
+    public Boolean restrictToQueries() {
+        return restrictToQueries != null && restrictToQueries;
+    }
+
+    public Boolean excludedSourceFilesByPackage() {
+        return excludedSourceFilesByPackage != null && excludedSourceFilesByPackage;
+    }
+
+    public @Nullable HtmlCompression htmlViewCompression() {
+        return htmlViewCompression == null ? null : HtmlCompression.valueOf(htmlViewCompression);
+    }
+
+    public NodeRanking nodeRanking() {
+        return nodeRanking == null ? NodeRanking.DEGREE : NodeRanking.valueOf(nodeRanking);
+    }
+
     public List<String> packages() {
-        if (packages.isEmpty()) {
-            this.packages = this.basePackages != null ? Arrays.stream(this.basePackages.split(":")).map(String::trim).toList()
-                    : new ArrayList<>();
+        return packageMatcher().packages();
+    }
+
+    private PackageMatcher packageMatcher() {
+        PackageMatcher current = packageMatcher;
+        if (current == null) {
+            synchronized (this) {
+                if (packageMatcher == null) {
+                    packageMatcher = PackageMatcher
+                            .of(this.basePackages != null ? Arrays.asList(this.basePackages.split(":")) : List.of());
+                }
+                current = packageMatcher;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Falls back on the project groupId when no base package was configured. Only the first groupId found is kept.
+     */
+    private synchronized void useAsDefaultPackage(String groupId) {
+        if (packageMatcher().isEmpty()) {
+            packageMatcher = PackageMatcher.of(List.of(groupId));
+        }
+    }
+
+    private void useProjectGroupId(JavaSourceFile javaSourceFile) {
+        javaSourceFile.getMarkers().findAll(JavaProject.class).forEach(javaProject -> {
+            if (javaProject.getPublication() != null
+                    && StringUtils.isNotEmpty(javaProject.getPublication().getGroupId())) {
+                useAsDefaultPackage(javaProject.getPublication().getGroupId());
+            }
+        });
+    }
+
+    private boolean isExcluded(JavaSourceFile javaSourceFile) {
+        return javaSourceFile.getPackageDeclaration() == null
+                || isPackageExcluded(javaSourceFile.getPackageDeclaration().getPackageName());
+    }
+
+    private boolean isPackageExcluded(String packageName) {
+        return !packageMatcher().matches(packageName);
+    }
+
+    /**
+     * Reports an excluded source file, right away or, when aggregated by package, once scanning is done.
+     */
+    private void excluded(GraphScanAccumulator graph, JavaSourceFile javaSourceFile, ExecutionContext ctx) {
+        if (excludedSourceFilesByPackage()) {
+            graph.excludedSourceFiles.add(JavaSourceFileExcludedReport.Row.packageName(javaSourceFile),
+                    javaSourceFile.getSourcePath().toString());
+        } else {
+            insertRow(javaSourceFileExcludedReport, ctx, new JavaSourceFileExcludedReport.Row(javaSourceFile));
+        }
+    }
+
+    private static Path projectDir() {
+        return Paths.get(System.getProperty("user.dir"));
+    }
+
+    /**
+     * {@link ExecutionContext} messages, which back the data tables, are not thread-safe, while the scanner may run
+     * concurrently.
+     */
+    private static <R> void insertRow(DataTable<R> dataTable, ExecutionContext ctx, R row) {
+        synchronized (ctx) {
+            dataTable.insertRow(ctx, row);
         }
-        return packages;
     }
 
     @Override
@@ -99,28 +304,151 @@ public class ProjectAerialViewGenerator extends ScanningRecipe<ProjectAerialView
 
     @Override
     public GraphScanAccumulator getInitialValue(@NotNull ExecutionContext ctx) {
-        return new GraphScanAccumulator();
+        GraphScanAccumulator graph = newAccumulator();
+        if (collectMetrics()) {
+            graph.metrics = ScanMetrics.enabled();
+        }
+        if (StringUtils.isNotEmpty(incrementalSnapshot)) {
+            graph.incrementalScan = IncrementalScanSnapshot.load(projectDir().resolve(incrementalSnapshot),
+                    this::snapshotConfiguration, projectDir());
+        }
+        return graph;
+    }
+
+    /**
+     * @return The options the contributions of an incremental snapshot depend on: the base packages, once they defaulted
+     *         to the project groupId if none were configured, and whether tests are included.
+     */
+    private String snapshotConfiguration() {
+        return "basePackages=%s;includeTests=%s".formatted(String.join(":", packages()), includeTests());
+    }
+
+    /**
+     * @return A new, empty accumulator, spilling its links to temporary files beyond {@code maxLinksInMemory} if set.
+     */
+    GraphScanAccumulator newAccumulator() {
+        return maxLinksInMemory == null ? new GraphScanAccumulator() : new GraphScanAccumulator(maxLinksInMemory);
     }
 
     @Override
     public @NotNull TreeVisitor<?, @NotNull ExecutionContext> getScanner(GraphScanAccumulator graph) {
+        TreeVisitor<?, @NotNull ExecutionContext> scanner = graph.incrementalScan == null ? graphScanner(graph)
+                : incrementalScanner(graph);
+        return new TreeVisitor<Tree, ExecutionContext>() {
+
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (!(tree instanceof SourceFile sourceFile)) {
+                    return scanner.visit(tree, ctx);
+                }
+                SourceFileScanEvent event = new SourceFileScanEvent();
+                event.begin();
+                Tree visited = scanner.visit(tree, ctx);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.sourcePath = sourceFile.getSourcePath().toString();
+                    event.nodes = graph.nodeCount();
+                    event.links = graph.linkCount();
+                    event.commit();
+                }
+                // The growth of partial graphs is recorded when they are merged. Sizing the link table takes its
+                // locks, so it is only done when metrics are recorded.
+                if (!graph.partial && graph.metrics.isEnabled()) {
+                    graph.metrics.scanned(1, graph.nodeCount(), graph.linkCount());
+                }
+                return visited;
+            }
+        };
+    }
+
+    /**
+     * Replays the previous contribution of unchanged source files, and scans the other ones into their own partial graph
+     * to record their new contribution.
+     */
+    private TreeVisitor<?, @NotNull ExecutionContext> incrementalScanner(GraphScanAccumulator graph) {
+        IncrementalScanSnapshot snapshot = graph.incrementalScan;
+        return new TreeVisitor<Tree, ExecutionContext>() {
+
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (tree instanceof JavaSourceFile javaSourceFile) {
+                    useProjectGroupId(javaSourceFile);
+                    String sourcePath = javaSourceFile.getSourcePath().toString();
+                    String hash = IncrementalScanSnapshot.hash(javaSourceFile);
+                    String classpath = snapshot.classpath(javaSourceFile);
+                    snapshot.visited(sourcePath, hash);
+                    IncrementalScanSnapshot.FileContribution contribution = snapshot.previous(sourcePath, hash,
+                            classpath);
+                    graph.metrics.count(contribution == null ? Counter.SNAPSHOT_MISS : Counter.SNAPSHOT_HIT);
+                    if (contribution == null) {
+                        // Unhandled types and referenced types are kept apart, to be recorded with the contribution.
+                        GraphScanAccumulator partial = graph.partial();
+                        partial.unhandledTypes = new Occurrences<>();
+                        partial.referencedTypes = new HashSet<>();
+                        graphScanner(partial).visit(javaSourceFile, ctx);
+                        contribution = IncrementalScanSnapshot.FileContribution.of(hash, classpath,
+                                isExcluded(javaSourceFile), javaSourceFile, partial);
+                        partial.deleteSpilledLinks();
+                    } else if (contribution.excluded()) {
+                        excluded(graph, javaSourceFile, ctx);
+                    }
+                    contribution.replay(graph, sourcePath);
+                    snapshot.record(sourcePath, contribution);
+                }
+                return tree;
+            }
+        };
+    }
+
+    private TreeVisitor<?, @NotNull ExecutionContext> graphScanner(GraphScanAccumulator graph) {
+        ScanMetrics metrics = graph.metrics;
         return new JavaIsoVisitor<>() {
 
+            /**
+             * The artifact declaring the classes of the visited source file, {@code null} if unknown.
+             */
+            private @Nullable String artifact;
+
+            private String sourcePath;
+
+            private boolean testSource;
+
+            /**
+             * The unhandled types of the visited source file, so that the signature of a type is built once per file.
+             */
+            private final Map<JavaType, UnhandledType> unhandledTypes = new IdentityHashMap<>();
+
+            /**
+             * The nodes of the class declarations enclosing the visited tree, innermost last. Classes without a type
+             * are {@code -1}, and so are classes of an unknown artifact until they link to another class.
+             */
+            private int[] enclosingClasses = new int[8];
+
+            /**
+             * The types of the class declarations enclosing the visited tree, to create their node on their first link.
+             */
+            private JavaType.FullyQualified[] enclosingTypes = new JavaType.FullyQualified[8];
+
+            private int depth;
+
             @Override
             public J preVisit(@NotNull J tree, ExecutionContext ctx) {
                 if (tree instanceof JavaSourceFile javaSourceFile) {
-                    javaSourceFile.getMarkers().findAll(JavaProject.class).forEach(javaProject -> {
-                        if (javaProject.getPublication() != null
-                                && StringUtils.isNotEmpty(javaProject.getPublication().getGroupId())) {
-                            if (packages().isEmpty())
-                                packages().add(javaProject.getPublication().getGroupId());
-                        }
-                    });
-                    if (javaSourceFile.getPackageDeclaration() == null
-                            || isPackageExcluded(javaSourceFile.getPackageDeclaration().getPackageName())) {
-                        javaSourceFileExcludedReport.insertRow(ctx, new JavaSourceFileExcludedReport.Row(javaSourceFile));
+                    long start = metrics.start();
+                    useProjectGroupId(javaSourceFile);
+                    sourcePath = javaSourceFile.getSourcePath().toString();
+                    unhandledTypes.clear();
+                    if (isExcluded(javaSourceFile)) {
+                        excluded(graph, javaSourceFile, ctx);
                         stopAfterPreVisit();
                     }
+                    artifact = javaSourceFile.getMarkers().findFirst(JavaProject.class)
+                            .map(JavaProject::getPublication)
+                            .map(JavaProject.Publication::getArtifactId)
+                            .filter(StringUtils::isNotEmpty)
+                            .orElse(null);
+                    testSource = sourcePath.contains("src/test");
+                    metrics.stop(Callback.PRE_VISIT, start);
                 }
                 return tree;
             }
@@ -128,73 +456,75 @@ public class ProjectAerialViewGenerator extends ScanningRecipe<ProjectAerialView
             @Override
             public J.@NotNull ClassDeclaration visitClassDeclaration(J.@NotNull ClassDeclaration classDecl,
                     ExecutionContext executionContext) {
-                if (includeTests() || not(isTestClass()).test(getCursor())) {
-                    J.CompilationUnit cu = getCursor().dropParentUntil(value -> value instanceof J.CompilationUnit).getValue();
-                    cu.getMarkers().findFirst(JavaProject.class).ifPresent(javaProject -> {
-                        if (javaProject.getPublication() != null
-                                && StringUtils.isNotEmpty(javaProject.getPublication().getArtifactId())) {
-                            String artifact = javaProject.getPublication().getArtifactId();
-                            if (classDecl.getType() != null) {
-                                String fq = classDecl.getType().getFullyQualifiedName();
-                                graph.findNode(fq).orElseGet(() -> {
-                                    Node newNode = new Node(fq, classDecl.getType().getPackageName());
-                                    newNode.setArtifactId(artifact);
-                                    graph.nodes.add(newNode);
-                                    return newNode;
-                                }).setArtifactId(artifact);
-                            }
-                        }
-                    });
+                if (testSource && !includeTests()) {
+                    return classDecl;
+                }
+                long start = metrics.start();
+                int node = -1;
+                // Only classes of a known artifact are nodes on their own, the other ones once they link somewhere.
+                if (classDecl.getType() != null && artifact != null) {
+                    node = graph.node(classDecl.getType().getFullyQualifiedName(), classDecl.getType().getPackageName());
+                    graph.declare(node, artifact);
+                }
+                if (depth == enclosingClasses.length) {
+                    enclosingClasses = Arrays.copyOf(enclosingClasses, depth * 2);
+                    enclosingTypes = Arrays.copyOf(enclosingTypes, depth * 2);
+                }
+                enclosingTypes[depth] = classDecl.getType();
+                enclosingClasses[depth++] = node;
+                try {
                     return super.visitClassDeclaration(classDecl, executionContext);
+                } finally {
+                    enclosingTypes[--depth] = null;
+                    metrics.stop(Callback.CLASS_DECLARATION, start);
                 }
-                return classDecl;
-            }
-
-            private Predicate<Cursor> isTestClass() {
-                return cursor -> {
-                    var sourceFile = getCursor().firstEnclosing(JavaSourceFile.class);
-                    return sourceFile != null && sourceFile.getSourcePath().toString()
-                            .contains("src/test");
-                };
             }
 
             @Override
             public J.@NotNull MemberReference visitMemberReference(J.@NotNull MemberReference memberReference,
                     ExecutionContext ctx) {
+                long start = metrics.start();
                 var member = super.visitMemberReference(memberReference, ctx);
                 JavaType.Method methodType = memberReference.getMethodType();
                 //Method type could be null if there was a problem resolving dependencies or parsing the related class
                 if (methodType != null) {
                     addLink(methodType.getDeclaringType());
                 }
+                metrics.stop(Callback.MEMBER_REFERENCE, start);
                 return member;
             }
 
             @Override
             public J.@NotNull FieldAccess visitFieldAccess(J.@NotNull FieldAccess fieldAccess,
                     ExecutionContext ctx) {
+                long start = metrics.start();
                 var fa = super.visitFieldAccess(fieldAccess, ctx);
                 addLinkForType(fa.getTarget().getType(), ctx);
+                metrics.stop(Callback.FIELD_ACCESS, start);
                 return fa;
             }
 
             @Override
             public J.@NotNull MethodInvocation visitMethodInvocation(J.@NotNull MethodInvocation method, ExecutionContext ctx) {
+                long start = metrics.start();
                 var mi = super.visitMethodInvocation(method, ctx);
                 JavaType.FullyQualified targetType = mi.getMethodType() != null ? mi.getMethodType().getDeclaringType() : null;
                 if (targetType != null) {
                     // Method target type could be null for groovy or kotlin projects
                     addLink(targetType);
                 }
+                metrics.stop(Callback.METHOD_INVOCATION, start);
                 return mi;
             }
 
             @Override
             public J.@NotNull NewClass visitNewClass(J.@NotNull NewClass newClass, ExecutionContext ctx) {
+                long start = metrics.start();
                 J.NewClass visitedNewClass = super.visitNewClass(newClass, ctx);
                 if (visitedNewClass.getMethodType() != null) {
                     addLink(visitedNewClass.getMethodType().getDeclaringType());
                 }
+                metrics.stop(Callback.NEW_CLASS, start);
                 return visitedNewClass;
             }
 
@@ -208,46 +538,39 @@ public class ProjectAerialViewGenerator extends ScanningRecipe<ProjectAerialView
                     case JavaType.FullyQualified fq -> addLink(fq);
                     case JavaType.Array array -> addLink((JavaType.FullyQualified) array.getElemType());
                     case JavaType.GenericTypeVariable gtv -> gtv.getBounds().stream().forEach(b -> addLinkForType(b, ctx));
-                    default -> javaTypesNotHandledReport.insertRow(ctx, new JavaTypesNotHandledReport.Row(type));
+                    default -> graph.unhandledTypes.add(
+                            unhandledTypes.computeIfAbsent(type, UnhandledType::of), sourcePath);
                 }
             }
 
-            private boolean isPackageExcluded(String packageName) {
-                return packages().stream().noneMatch(packageName::contains);
-            }
-
             private void addLink(@NotNull JavaType.FullyQualified targetType) {
+                long start = metrics.start();
+                link(targetType);
+                metrics.stop(Callback.ADD_LINK, start);
+            }
 
-                if (isPackageExcluded(targetType.getPackageName()))
-                    return;
-                J.ClassDeclaration enclosingClass = getCursor().firstEnclosing(J.ClassDeclaration.class);
-                if (enclosingClass == null) {
+            private void link(JavaType.FullyQualified targetType) {
+                if (graph.referencedTypes != null) {
+                    graph.referencedTypes.add(targetType.getFullyQualifiedName());
+                }
+                long start = metrics.start();
+                boolean excluded = isPackageExcluded(targetType.getPackageName());
+                metrics.stop(Callback.PACKAGE_EXCLUSION, start);
+                if (excluded || depth == 0) {
                     return;
                 }
-                JavaType.FullyQualified sourceType = enclosingClass.getType();
-                if (sourceType != null && !sourceType.equals(targetType)) {
-                    String sourceFq = sourceType.getFullyQualifiedName();
-                    String targetFq = targetType.getFullyQualifiedName();
-
-                    Node sourceNode = graph.findNode(sourceFq).orElseGet(() -> {
-                        Node newNode = new Node(sourceFq, sourceType.getPackageName());
-                        graph.nodes.add(newNode);
-                        return newNode;
-                    });
-                    Node targetNode = graph.findNode(targetFq).orElseGet(() -> {
-                        Node newNode = new Node(targetFq, targetType.getPackageName());
-                        graph.nodes.add(newNode);
-                        return newNode;
-                    });
-
-                    Link link = graph.findLink(sourceFq, targetFq).orElseGet(() -> {
-                        Link newLink = new Link(sourceFq, targetFq);
-                        graph.links.add(newLink);
-                        sourceNode.incrementOutgoing();
-                        targetNode.incrementIncoming();
-                        return newLink;
-                    });
-                    link.incrementWeight();
+                int source = enclosingClasses[depth - 1];
+                JavaType.FullyQualified sourceType = enclosingTypes[depth - 1];
+                if (source < 0 && sourceType != null && !sourceType.getFullyQualifiedName()
+                        .equals(targetType.getFullyQualifiedName())) {
+                    source = graph.node(sourceType.getFullyQualifiedName(), sourceType.getPackageName());
+                    enclosingClasses[depth - 1] = source;
+                }
+                if (source >= 0) {
+                    int target = graph.node(targetType.getFullyQualifiedName(), targetType.getPackageName());
+                    if (source != target) {
+                        graph.link(source, target);
+                    }
                 }
             }
         };
@@ -255,58 +578,760 @@ public class ProjectAerialViewGenerator extends ScanningRecipe<ProjectAerialView
 
     @Override
     public @NotNull Collection<J.CompilationUnit> generate(GraphScanAccumulator graph, @NotNull ExecutionContext ctx) {
-        GraphScanAccumulator finalGraph = filterGraph(graph);
-        finalGraph.nodes.forEach(node -> nodesReport.insertRow(ctx, node));
-        finalGraph.links.forEach(link -> linksReport.insertRow(ctx, link));
-        if (generateHTMLView()) {
-            try (InputStream templateStream = getClass().getResourceAsStream("template.html")) {
-                String json = new ObjectMapper().writeValueAsString(finalGraph);
-                if (templateStream == null) {
-                    throw new IllegalStateException("template.html not found");
+        generate(graph, ctx, projectDir());
+        return emptyList();
+    }
+
+    /**
+     * Reports the scanned graph and writes the HTML view and the graph snapshot, if enabled, to {@code directory}.
+     */
+    void generate(GraphScanAccumulator graph, ExecutionContext ctx, Path directory) {
+        if (graph.incrementalScan != null) {
+            try {
+                graph.incrementalScan.write();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        graph.unhandledTypes.entries().forEach(entry -> insertRow(javaTypesNotHandledReport, ctx,
+                new JavaTypesNotHandledReport.Row(entry.key().kind(), entry.key().signature(), entry.count(),
+                        entry.samples())));
+        graph.excludedSourceFiles.entries().forEach(entry -> insertRow(javaSourceFileExcludedReport, ctx,
+                new JavaSourceFileExcludedReport.Row(entry.key(), entry.count(), entry.samples())));
+        DependencyGraph fullGraph = graph.toGraph();
+        graph.deleteSpilledLinks();
+        if (graphSnapshot()) {
+            try {
+                GraphSnapshot.write(fullGraph, directory.resolve(GRAPH_SNAPSHOT));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        render(fullGraph, graph.metrics, ctx, directory);
+    }
+
+    /**
+     * Reports a graph in the data tables and, if enabled, renders its HTML view.
+     *
+     * @param fullGraph The whole graph, before {@code maxNodes} is applied.
+     * @param metrics The metrics recording the time of each phase, reported in the scan metrics data table.
+     * @param ctx The execution context holding the data tables.
+     * @param directory The directory of the HTML view.
+     */
+    void render(DependencyGraph fullGraph, ScanMetrics metrics, ExecutionContext ctx, Path directory) {
+        DependencyGraph shownGraph = fullGraph;
+        if (StringUtils.isNotEmpty(impactOf) || StringUtils.isNotEmpty(dependenciesOf)) {
+            try (var phase = metrics.phase(Phase.QUERY)) {
+                BitSet reached = query(fullGraph, ctx);
+                if (restrictToQueries()) {
+                    shownGraph = fullGraph.subgraph(reached);
                 }
-                String template = new String(templateStream.readAllBytes(), StandardCharsets.UTF_8);
-                String renderedTemplate = template.replace("'{{graphData}}'", json);
+            }
+        }
+        DependencyGraph finalGraph;
+        try (var phase = metrics.phase(Phase.FILTER)) {
+            finalGraph = filterGraph(shownGraph);
+        }
+        GraphLevel classes;
+        try (var phase = metrics.phase(Phase.COMMUNITIES)) {
+            // Cycles passing through classes dropped by maxNodes are still reported.
+            classes = GraphLevel.of(finalGraph, shownGraph);
+        }
+        List<Node> nodes = classes.nodes();
 
-                Path projectDir = Paths.get(System.getProperty("user.dir"));
-                Files.writeString(projectDir.resolve("class-diagram.html"), renderedTemplate);
+        // Packages and artifacts sum up the whole graph, not only the classes kept by maxNodes.
+        Map<String, DependencyGraph> levelGraphs = new LinkedHashMap<>();
+        Map<String, GraphLevel> levels = new LinkedHashMap<>();
+        try (var phase = metrics.phase(Phase.AGGREGATE)) {
+            levelGraphs.put("package", shownGraph.packages());
+            levelGraphs.put("artifact", shownGraph.artifacts());
+            levelGraphs.forEach((level, levelGraph) -> levels.put(level, GraphLevel.of(levelGraph)));
+            if (finalGraph != shownGraph) {
+                markDroppedClasses(levels.get("package"), shownGraph, finalGraph);
+            }
+        }
+        if (generateHTMLView() && layoutIterations != null && layoutIterations > 0) {
+            // The view opens on the package level when there is one, so every level is laid out.
+            try (var phase = metrics.phase(Phase.LAYOUT)) {
+                layout("class", finalGraph, nodes, ctx);
+                levelGraphs.forEach((level, levelGraph) -> layout(level, levelGraph, levels.get(level).nodes(), ctx));
+            }
+        }
+        Map<String, GraphDiff> diffs = new LinkedHashMap<>();
+        if (StringUtils.isNotEmpty(baselineSnapshot)) {
+            try (var phase = metrics.phase(Phase.DIFF)) {
+                DependencyGraph baseline = loadBaseline();
+                // The whole graph is compared, even when only the classes reached by the queries are shown.
+                boolean whole = shownGraph == fullGraph;
+                diffs.put("class", GraphDiff.of(baseline, fullGraph));
+                diffs.put("package", GraphDiff.of(baseline.packages(),
+                        whole ? levelGraphs.get("package") : fullGraph.packages()));
+                diffs.put("artifact", GraphDiff.of(baseline.artifacts(),
+                        whole ? levelGraphs.get("artifact") : fullGraph.artifacts()));
+                highlight(classes, diffs.get("class"));
+                levels.forEach((level, levelGraph) -> highlight(levelGraph, diffs.get(level)));
+            }
+        }
+        try (var phase = metrics.phase(Phase.REPORT)) {
+            nodes.forEach(node -> nodesReport.insertRow(ctx, node));
+            classes.links().forEach(link -> linksReport.insertRow(ctx, link));
+            classes.cycles().forEach(cycle -> cyclesReport.insertRow(ctx, new CyclesReport.Row("class", cycle)));
+            levels.forEach((level, levelGraph) -> {
+                levelGraph.nodes().forEach(
+                        node -> aggregatedNodesReport.insertRow(ctx, new AggregatedNodesReport.Row(level, node)));
+                levelGraph.links().forEach(
+                        link -> aggregatedLinksReport.insertRow(ctx, new AggregatedLinksReport.Row(level, link)));
+                levelGraph.cycles().forEach(cycle -> cyclesReport.insertRow(ctx, new CyclesReport.Row(level, cycle)));
+            });
+            diffs.forEach((level, diff) -> {
+                diff.nodes().forEach(node -> graphDiffNodesReport.insertRow(ctx, new GraphDiffNodesReport.Row(level, node)));
+                diff.links().forEach(link -> graphDiffLinksReport.insertRow(ctx, new GraphDiffLinksReport.Row(level, link)));
+            });
+        }
+        if (generateHTMLView()) {
+            // The data is serialized while being written, so both are timed together.
+            try (var phase = metrics.phase(Phase.RENDER)) {
+                renderHtml(classes, levels, diffs, directory.resolve("class-diagram.html"));
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
         }
-        return emptyList();
+        metrics.rows().forEach(row -> scanMetricsReport.insertRow(ctx, row));
+    }
+
+    /**
+     * Computes the positions of the nodes of a level with a force-directed layout, and reports its cost.
+     */
+    private void layout(String level, DependencyGraph graph, List<Node> nodes, ExecutionContext ctx) {
+        long start = System.nanoTime();
+        double[] positions = new ForceLayout(layoutIterations, LAYOUT_SEED).layout(graph);
+        for (int node = 0; node < nodes.size(); node++) {
+            // One decimal is more than enough for pixels, and keeps the embedded data small.
+            nodes.get(node).setPosition(Math.round(positions[2 * node] * 10) / 10.0,
+                    Math.round(positions[2 * node + 1] * 10) / 10.0);
+        }
+        layoutReport.insertRow(ctx, new LayoutReport.Row(level, graph.nodeCount(), graph.linkCount(), layoutIterations,
+                (System.nanoTime() - start) / 1_000_000));
     }
 
-    private GraphScanAccumulator filterGraph(GraphScanAccumulator graph) {
-        if (maxNodes == null || graph.nodes.size() <= maxNodes) {
+    /**
+     * Writes the standalone HTML view of the graph. The graph data is streamed between the two halves of the template,
+     * so that the document is never held in memory.
+     *
+     * @param classes The class graph.
+     * @param levels The aggregated graphs, by level name.
+     * @param target The HTML file to write.
+     */
+    void renderHtml(GraphLevel classes, Map<String, GraphLevel> levels, Path target) throws IOException {
+        renderHtml(classes, levels, Map.of(), target);
+    }
+
+    /**
+     * Renders the HTML view, with the summary of the changes of each level since the baseline snapshot, if any. The
+     * view draws a level on a canvas rather than with SVG elements when it shows more than {@link #CANVAS_NODES} nodes.
+     * <p>
+     * The graph data is written as a list of string literals: the data format, then parts each ended by an empty
+     * literal. The first part holds the package and artifact levels, then each {@link ClassPart} holds the classes of
+     * a package, so that the view parses the classes of a package when it is first expanded, and the data it parses
+     * when it opens grows with the number of packages rather than classes. With {@code htmlViewCompression}, each part
+     * is compressed as it is serialized, and written as the base64 chunks of the compressed data. Compressed data is
+     * made of newline-delimited records, so that the view parses each chunk as soon as it is decompressed instead of
+     * the whole part at once.
+     */
+    void renderHtml(GraphLevel classes, Map<String, GraphLevel> levels, Map<String, GraphDiff> diffs, Path target)
+            throws IOException {
+        HtmlTemplate template = HtmlTemplate.INSTANCE;
+        HtmlCompression compression = htmlViewCompression();
+        Collection<ClassPart> parts = ClassPart.of(classes);
+        try (Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            writer.write(template.head());
+            writer.write(compression == null ? "json" : compression.format());
+            writer.write("', '");
+            writePart(writer, compression, (json, records) -> writeLevels(json, records, classes, levels, diffs, parts));
+            for (ClassPart part : parts) {
+                // Neither a JSON document nor a base64 chunk is ever empty.
+                writer.write("', '', '");
+                writePart(writer, compression, (json, records) -> writeClasses(json, records, part));
+            }
+            writer.write(template.tail());
+        }
+    }
+
+    /**
+     * Writes a part of the graph data, either as a JSON document or as newline-delimited records.
+     */
+    @FunctionalInterface
+    private interface PartWriter {
+
+        void write(JsonGenerator json, boolean records) throws IOException;
+    }
+
+    private void writePart(Writer writer, @Nullable HtmlCompression compression, PartWriter part) throws IOException {
+        if (compression == null) {
+            try (JsonGenerator json = MAPPER.createGenerator(writer)) {
+                part.write(json, false);
+            }
+        } else {
+            try (OutputStream compressed = compression.open(writer,
+                    htmlViewChunkSize == null ? Integer.MAX_VALUE : htmlViewChunkSize);
+                    JsonGenerator json = MAPPER.createGenerator(compressed, JsonEncoding.UTF8)) {
+                json.setRootValueSeparator(new SerializedString("\n"));
+                part.write(json, true);
+            }
+        }
+    }
+
+    /**
+     * Writes the package and artifact levels, with the packages of the class parts that follow. As records, a header
+     * holds everything but nodes and links, then a record per node and per link of each level.
+     */
+    private static void writeLevels(JsonGenerator json, boolean records, GraphLevel classes,
+            Map<String, GraphLevel> levels, Map<String, GraphDiff> diffs, Collection<ClassPart> parts)
+            throws IOException {
+        json.writeStartObject();
+        if (records) {
+            json.writeArrayFieldStart("levels");
+            for (String level : levels.keySet()) {
+                json.writeString(level);
+            }
+            json.writeEndArray();
+        } else {
+            json.writeObjectFieldStart("levels");
+            for (Map.Entry<String, GraphLevel> level : levels.entrySet()) {
+                json.writeObjectFieldStart(level.getKey());
+                writeLevel(json, level.getValue().nodes(), level.getValue().links());
+                json.writeEndObject();
+            }
+            json.writeEndObject();
+        }
+        json.writeNumberField("canvasNodes", CANVAS_NODES);
+        if (!diffs.isEmpty()) {
+            json.writeObjectFieldStart("diff");
+            for (Map.Entry<String, GraphDiff> diff : diffs.entrySet()) {
+                json.writeObjectField(diff.getKey(), diff.getValue().summary());
+            }
+            json.writeEndObject();
+        }
+        json.writeArrayFieldStart("packages");
+        for (ClassPart part : parts) {
+            json.writeString(part.packageName());
+        }
+        json.writeEndArray();
+        // Classes are laid out together but parsed package by package, the view fits them to the bounds of them all.
+        if (!classes.nodes().isEmpty() && classes.nodes().stream().allMatch(node -> node.getX() != null)) {
+            json.writeArrayFieldStart("classBounds");
+            json.writeNumber(classes.nodes().stream().mapToDouble(Node::getX).min().orElseThrow());
+            json.writeNumber(classes.nodes().stream().mapToDouble(Node::getY).min().orElseThrow());
+            json.writeNumber(classes.nodes().stream().mapToDouble(Node::getX).max().orElseThrow());
+            json.writeNumber(classes.nodes().stream().mapToDouble(Node::getY).max().orElseThrow());
+            json.writeEndArray();
+        }
+        json.writeEndObject();
+        if (records) {
+            for (Map.Entry<String, GraphLevel> level : levels.entrySet()) {
+                writeLevelRecords(json, level.getKey(), level.getValue().nodes(), level.getValue().links());
+            }
+        }
+    }
+
+    /**
+     * Writes the classes of a package. As records, a header holds the package, then a record per node and per link.
+     */
+    private static void writeClasses(JsonGenerator json, boolean records, ClassPart part) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("package", part.packageName());
+        json.writeObjectField("packageOf", part.packageOf());
+        if (records) {
+            json.writeEndObject();
+            writeLevelRecords(json, null, part.nodes(), part.links());
+        } else {
+            writeLevel(json, part.nodes(), part.links());
+            json.writeEndObject();
+        }
+    }
+
+    /**
+     * @param level The level of the records, none for the nodes and links of a class part.
+     */
+    private static void writeLevelRecords(JsonGenerator json, @Nullable String level, List<Node> nodes,
+            List<Link> links) throws IOException {
+        for (Node node : nodes) {
+            json.writeStartObject();
+            if (level != null) {
+                json.writeStringField("level", level);
+            }
+            json.writeObjectField("node", node);
+            json.writeEndObject();
+        }
+        for (Link link : links) {
+            json.writeStartObject();
+            if (level != null) {
+                json.writeStringField("level", level);
+            }
+            json.writeObjectField("link", link);
+            json.writeEndObject();
+        }
+    }
+
+    private static void writeLevel(JsonGenerator json, List<Node> nodes, List<Link> links) throws IOException {
+        json.writeArrayFieldStart("nodes");
+        for (Node node : nodes) {
+            json.writeObject(node);
+        }
+        json.writeEndArray();
+        json.writeArrayFieldStart("links");
+        for (Link link : links) {
+            json.writeObject(link);
+        }
+        json.writeEndArray();
+    }
+
+    /**
+     * Runs the {@code impactOf} and {@code dependenciesOf} queries and reports the classes they reach.
+     *
+     * @return The classes reached by any query.
+     */
+    private BitSet query(DependencyGraph graph, ExecutionContext ctx) {
+        Reachability reachability = graph.reachability();
+        BitSet reached = new BitSet(graph.nodeCount());
+        query(graph, reachability, "impactOf", impactOf, Direction.DEPENDENTS, reached, ctx);
+        query(graph, reachability, "dependenciesOf", dependenciesOf, Direction.DEPENDENCIES, reached, ctx);
+        return reached;
+    }
+
+    private void query(DependencyGraph graph, Reachability reachability, String query, String selectors,
+            Direction direction, BitSet reached, ExecutionContext ctx) {
+        if (StringUtils.isNullOrEmpty(selectors)) {
+            return;
+        }
+        for (String selector : selectors.split(":")) {
+            if (selector.isBlank()) {
+                continue;
+            }
+            int[] distances = reachability.distances(direction, select(graph, selector.trim()));
+            for (int node = 0; node < distances.length; node++) {
+                if (distances[node] >= 0) {
+                    reached.set(node);
+                    reachabilityReport.insertRow(ctx, new ReachabilityReport.Row(query, selector.trim(),
+                            graph.className(node), graph.packageName(node), graph.artifactId(node), distances[node]));
+                }
+            }
+        }
+    }
+
+    /**
+     * @param selector A class name, a package, which also selects its sub-packages, or an artifact identifier.
+     * @return The selected classes.
+     */
+    static BitSet select(DependencyGraph graph, String selector) {
+        PackageMatcher packages = PackageMatcher.of(List.of(selector));
+        BitSet selected = new BitSet(graph.nodeCount());
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            if (selector.equals(graph.className(node)) || selector.equals(graph.artifactId(node))
+                    || (graph.packageName(node) != null && packages.matches(graph.packageName(node)))) {
+                selected.set(node);
+            }
+        }
+        return selected;
+    }
+
+    private DependencyGraph loadBaseline() {
+        try {
+            return GraphSnapshot.open(projectDir().resolve(baselineSnapshot)).toGraph();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Marks the nodes and links of a level that changed since the baseline. Removed ones are not part of the level.
+     */
+    private static void highlight(GraphLevel level, GraphDiff diff) {
+        Map<String, String> nodeChanges = new HashMap<>();
+        Map<String, String> linkChanges = new HashMap<>();
+        diff.nodes().forEach(node -> nodeChanges.put(node.name(), node.change().label()));
+        diff.links().forEach(link -> linkChanges.put(link.source() + ' ' + link.target(), link.change().label()));
+        level.nodes().forEach(node -> node.setChange(nodeChanges.get(node.getClassName())));
+        level.links().forEach(link -> link.setChange(linkChanges.get(link.getSource() + ' ' + link.getTarget())));
+    }
+
+    /**
+     * Marks the packages some classes of which were dropped by {@code maxNodes}: the package level sums up all their
+     * classes, while expanding them only shows the kept ones.
+     */
+    private static void markDroppedClasses(GraphLevel packages, DependencyGraph shownGraph,
+            DependencyGraph finalGraph) {
+        Map<String, Integer> dropped = new HashMap<>();
+        for (int node = 0; node < shownGraph.nodeCount(); node++) {
+            if (shownGraph.packageName(node) != null) {
+                dropped.merge(shownGraph.packageName(node), 1, Integer::sum);
+            }
+        }
+        for (int node = 0; node < finalGraph.nodeCount(); node++) {
+            if (finalGraph.packageName(node) != null) {
+                dropped.merge(finalGraph.packageName(node), -1, Integer::sum);
+            }
+        }
+        packages.nodes().forEach(node -> {
+            Integer count = dropped.get(node.getClassName());
+            node.setDroppedClasses(count == null || count == 0 ? null : count);
+        });
+    }
+
+    DependencyGraph filterGraph(DependencyGraph graph) {
+        if (maxNodes == null || graph.nodeCount() <= maxNodes) {
             return graph;
         }
-        GraphScanAccumulator filteredGraph = new GraphScanAccumulator();
-        graph.nodes.sort(
-                Comparator.comparingInt((Node node) -> Math.max(node.getIncomingConnections(), node.getOutgoingConnections()))
-                        .reversed());
-        filteredGraph.nodes = new ArrayList<>(graph.nodes.subList(0, maxNodes));
-        List<String> topNodeIds = filteredGraph.nodes.stream().map(Node::getClassName).toList();
+        BitSet topNodes = nodeRanking().top(graph, maxNodes);
+        return graph.subgraph(topNodes);
+    }
 
-        filteredGraph.links = graph.links.stream()
-                .filter(l -> topNodeIds.contains(l.getSource()) && topNodeIds.contains(l.getTarget()))
-                .collect(Collectors.toList());
+    /**
+     * The reported nodes and links of a graph, with their Louvain community and the dependency cycle they are part of.
+     */
+    record GraphLevel(List<Node> nodes, List<Link> links, List<Cycle> cycles) {
 
-        return filteredGraph;
+        static GraphLevel of(DependencyGraph graph) {
+            return of(graph, graph);
+        }
+
+        /**
+         * @param graph The reported graph.
+         * @param whole The graph whose cycles are reported, {@code graph} itself or a graph it is a
+         *        {@link DependencyGraph#subgraph(BitSet) subgraph} of. Nodes of {@code graph} carry the cycle of their
+         *        node in {@code whole}.
+         */
+        static GraphLevel of(DependencyGraph graph, DependencyGraph whole) {
+            List<Node> nodes = graph.nodes();
+            int[] communities = Louvain.communities(graph);
+            int[] cycles = StronglyConnectedComponents.cycles(whole);
+            // Subgraphs keep the relative order of their nodes, so both graphs are walked together.
+            int wholeNode = 0;
+            for (int node = 0; node < communities.length; node++) {
+                String className = graph.className(node);
+                while (!className.equals(whole.className(wholeNode))) {
+                    wholeNode++;
+                }
+                nodes.get(node).setCommunity(communities[node]);
+                nodes.get(node).setCycle(cycles[wholeNode] < 0 ? null : cycles[wholeNode]);
+            }
+            return new GraphLevel(nodes, graph.links(), StronglyConnectedComponents.describe(whole, cycles));
+        }
+    }
+
+    /**
+     * The classes of a package, embedded in the HTML view apart from the other classes.
+     *
+     * @param packageName The package, none for the classes without one.
+     * @param nodes The classes of the package.
+     * @param links The links from or to a class of the package: a link between two packages is in the parts of both.
+     * @param packageOf The package of the classes the links lead to or come from, outside of the package.
+     */
+    private record ClassPart(@Nullable String packageName, List<Node> nodes, List<Link> links,
+            Map<String, @Nullable String> packageOf) {
+
+        /**
+         * @return The classes by package, in the order their packages first appear.
+         */
+        static Collection<ClassPart> of(GraphLevel classes) {
+            Map<String, String> packages = new HashMap<>();
+            Map<String, ClassPart> parts = new LinkedHashMap<>();
+            for (Node node : classes.nodes()) {
+                packages.put(node.getClassName(), node.getPackageName());
+                parts.computeIfAbsent(node.getPackageName(),
+                        packageName -> new ClassPart(packageName, new ArrayList<>(), new ArrayList<>(), new HashMap<>()))
+                        .nodes().add(node);
+            }
+            for (Link link : classes.links()) {
+                String source = packages.get(link.getSource());
+                String target = packages.get(link.getTarget());
+                parts.get(source).links().add(link);
+                if (!Objects.equals(source, target)) {
+                    parts.get(source).packageOf().put(link.getTarget(), target);
+                    parts.get(target).links().add(link);
+                    parts.get(target).packageOf().put(link.getSource(), source);
+                }
+            }
+            return parts.values();
+        }
+    }
+
+    /**
+     * A type the scanner does not know how to link to.
+     *
+     * @param kind The class name of the {@link JavaType}.
+     * @param signature The type signature.
+     */
+    record UnhandledType(String kind, String signature) implements Comparable<UnhandledType> {
+
+        static UnhandledType of(JavaType type) {
+            return new UnhandledType(type.getClass().getName(), type.toString());
+        }
+
+        @Override
+        public int compareTo(UnhandledType other) {
+            int byKind = kind.compareTo(other.kind);
+            return byKind != 0 ? byKind : signature.compareTo(other.signature);
+        }
+    }
+
+    /**
+     * The HTML view template, split once around the graph data placeholder.
+     */
+    private record HtmlTemplate(String head, String tail) {
+
+        private static final String PLACEHOLDER = "'{{graphData}}'";
+
+        static final HtmlTemplate INSTANCE = load();
+
+        private static HtmlTemplate load() {
+            try (InputStream templateStream = ProjectAerialViewGenerator.class.getResourceAsStream("template.html")) {
+                if (templateStream == null) {
+                    throw new IllegalStateException("template.html not found");
+                }
+                String template = new String(templateStream.readAllBytes(), StandardCharsets.UTF_8);
+                int placeholder = template.indexOf(PLACEHOLDER);
+                if (placeholder == -1) {
+                    throw new IllegalStateException("template.html has no " + PLACEHOLDER + " placeholder");
+                }
+                return new HtmlTemplate(template.substring(0, placeholder),
+                        template.substring(placeholder + PLACEHOLDER.length()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
 
     /**
      * The accumulator for the recipe, holding the graph data.
+     * <p>
+     * Class, package and artifact names are interned into {@code int} identifiers, and links are accumulated in a
+     * primitive {@link LinkTable}, so recording a reference costs a couple of hash lookups and no allocation once the
+     * link exists. The immutable CSR {@link DependencyGraph} is built once scanning is done.
+     * <p>
+     * The accumulator is thread-safe: several scanners may record references into the same instance, or fill their
+     * own partial graphs that are then combined with {@link #merge(GraphScanAccumulator)}.
      */
     public static class GraphScanAccumulator {
-        public List<Node> nodes = new ArrayList<>();
-        public List<Link> links = new ArrayList<>();
+        private final SymbolTable classNames = new SymbolTable();
+        private final SymbolTable labels = new SymbolTable();
+        private final LinkTable links;
+
+        private final int maxLinksInMemory;
+
+        @Nullable
+        IncrementalScanSnapshot incrementalScan;
+
+        /**
+         * The fully qualified names of the types the scanned source file links to, excluded ones included, when they are
+         * recorded for the incremental scan snapshot. {@code null} otherwise.
+         */
+        @Nullable
+        Set<String> referencedTypes;
+
+        ScanMetrics metrics = ScanMetrics.DISABLED;
 
-        public Optional<Node> findNode(String id) {
-            return nodes.stream().filter(n -> n.getClassName().equals(id)).findFirst();
+        /**
+         * The types the scanner could not link to, and the excluded source files by package when they are aggregated.
+         * Shared with the partial graphs, as they are reported once scanning is done.
+         */
+        Occurrences<UnhandledType> unhandledTypes = new Occurrences<>();
+
+        Occurrences<String> excludedSourceFiles = new Occurrences<>();
+
+        /**
+         * Whether this accumulator is the partial graph of some source files, to be merged into the whole graph.
+         */
+        boolean partial;
+
+        // Indexed by node, which is also the class name identifier. Guarded by this.
+        private int[] packageIds = new int[256];
+        private int[] artifactIds = new int[256];
+
+        public GraphScanAccumulator() {
+            this(Integer.MAX_VALUE);
+        }
+
+        /**
+         * Creates an accumulator spilling its links to temporary files beyond a number of links. Class names stay in
+         * memory, as there are far fewer classes than links.
+         *
+         * @param maxLinksInMemory The number of links held in memory.
+         * @see LinkTable
+         */
+        public GraphScanAccumulator(int maxLinksInMemory) {
+            this.links = new LinkTable(maxLinksInMemory);
+            this.maxLinksInMemory = maxLinksInMemory;
+        }
+
+        /**
+         * Returns the node of the given class, creating it if it does not exist yet.
+         *
+         * @param className The fully qualified name of the class.
+         * @param packageName The package name of the class.
+         * @return The node identifier.
+         */
+        public int node(String className, String packageName) {
+            int node = classNames.find(className);
+            if (node >= 0) {
+                metrics.count(Counter.NODE_HIT);
+                return node;
+            }
+            synchronized (this) {
+                node = classNames.find(className);
+                if (node < 0) {
+                    metrics.count(Counter.NODE_MISS);
+                    node = classNames.intern(className);
+                    if (node == packageIds.length) {
+                        packageIds = Arrays.copyOf(packageIds, node * 2);
+                        artifactIds = Arrays.copyOf(artifactIds, node * 2);
+                    }
+                    packageIds[node] = packageName == null ? -1 : labels.intern(packageName);
+                    artifactIds[node] = -1;
+                }
+                return node;
+            }
+        }
+
+        /**
+         * Records the artifact declaring a node.
+         *
+         * @param node The node identifier.
+         * @param artifactId The artifact identifier.
+         */
+        public synchronized void declare(int node, String artifactId) {
+            artifactIds[node] = labels.intern(artifactId);
+        }
+
+        /**
+         * Records a reference from {@code source} to {@code target}.
+         *
+         * @param source The referencing node.
+         * @param target The referenced node.
+         */
+        public void link(int source, int target) {
+            links.add(source, target, 1);
+        }
+
+        /**
+         * Records {@code weight} references from {@code source} to {@code target}.
+         *
+         * @see #link(int, int)
+         */
+        public void link(int source, int target, int weight) {
+            links.add(source, target, weight);
+        }
+
+        public int nodeCount() {
+            return classNames.size();
         }
 
-        public Optional<Link> findLink(String source, String target) {
-            return links.stream().filter(l -> l.getSource().equals(source) && l.getTarget().equals(target)).findFirst();
+        /**
+         * @return A new, empty accumulator, sharing this accumulator incremental scan state, metrics, reported
+         *         occurrences and number of links held in memory.
+         */
+        GraphScanAccumulator partial() {
+            return partial(1);
+        }
+
+        /**
+         * @param partials The number of partial graphs that may be held at once, waiting to be merged. The number of
+         *        links this accumulator holds in memory is split evenly between them, at least one link each.
+         * @return A new, empty accumulator, sharing this accumulator incremental scan state, metrics and reported
+         *         occurrences.
+         */
+        GraphScanAccumulator partial(int partials) {
+            GraphScanAccumulator partial = new GraphScanAccumulator(
+                    maxLinksInMemory == Integer.MAX_VALUE ? Integer.MAX_VALUE : Math.max(1, maxLinksInMemory / partials));
+            partial.incrementalScan = incrementalScan;
+            partial.metrics = metrics;
+            partial.unhandledTypes = unhandledTypes;
+            partial.excludedSourceFiles = excludedSourceFiles;
+            partial.partial = true;
+            return partial;
+        }
+
+        /**
+         * @return The number of links, an upper bound once links were spilled.
+         * @see LinkTable#size()
+         */
+        public int linkCount() {
+            return links.size();
+        }
+
+        /**
+         * @return The number of runs of links spilled to temporary files so far.
+         */
+        int spilledRuns() {
+            return links.runCount();
+        }
+
+        /**
+         * Deletes the temporary files of the spilled links, once the graph was built.
+         */
+        void deleteSpilledLinks() {
+            links.close();
+        }
+
+        /**
+         * Adds a partial graph to this one: nodes are registered and link weights are summed. Merging partial graphs in
+         * the order their source files were scanned gives the same graph as a single serial scan.
+         *
+         * @param other The partial graph to add. It is not modified.
+         * @return This accumulator.
+         */
+        public GraphScanAccumulator merge(GraphScanAccumulator other) {
+            int[] renumbered;
+            synchronized (other) {
+                renumbered = new int[other.nodeCount()];
+                for (int otherNode = 0; otherNode < renumbered.length; otherNode++) {
+                    renumbered[otherNode] = node(other.classNames.symbol(otherNode),
+                            other.labels.symbol(other.packageIds[otherNode]));
+                    if (other.artifactIds[otherNode] >= 0) {
+                        declare(renumbered[otherNode], other.labels.symbol(other.artifactIds[otherNode]));
+                    }
+                }
+            }
+            other.links.forEach((source, target, weight) -> links.add(renumbered[source], renumbered[target], weight));
+            return this;
+        }
+
+        /**
+         * Adds a graph snapshot to this graph: nodes are registered by class name and link weights are summed. Links are
+         * streamed from the mapped file, so only the node numbering of the snapshot is held in memory.
+         *
+         * @param snapshot The snapshot to add.
+         * @return This accumulator.
+         */
+        public GraphScanAccumulator merge(GraphSnapshot snapshot) {
+            int[] renumbered = new int[snapshot.nodeCount()];
+            for (int snapshotNode = 0; snapshotNode < renumbered.length; snapshotNode++) {
+                renumbered[snapshotNode] = node(snapshot.className(snapshotNode), snapshot.packageName(snapshotNode));
+                String artifactId = snapshot.artifactId(snapshotNode);
+                if (artifactId != null) {
+                    declare(renumbered[snapshotNode], artifactId);
+                }
+            }
+            snapshot.forEachLink((source, target, weight) -> links.add(renumbered[source], renumbered[target], weight));
+            return this;
+        }
+
+        /**
+         * Builds the immutable graph of everything recorded so far.
+         *
+         * @return The dependency graph, whose nodes are numbered in the order they were first met.
+         */
+        public DependencyGraph toGraph() {
+            int[] classIds;
+            int[] nodePackageIds;
+            int[] nodeArtifactIds;
+            synchronized (this) {
+                int nodeCount = nodeCount();
+                classIds = IntStream.range(0, nodeCount).toArray();
+                nodePackageIds = Arrays.copyOf(packageIds, nodeCount);
+                nodeArtifactIds = Arrays.copyOf(artifactIds, nodeCount);
+            }
+            return DependencyGraph.of(classNames, labels, classIds, nodePackageIds, nodeArtifactIds, links);
         }
     }
 }
@@ -0,0 +1,111 @@
+package io.github.jtama.openrewrite;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openrewrite.Column;
+import org.openrewrite.Cursor;
+import org.openrewrite.DataTable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.scheduling.RecipeRunCycle;
+import org.openrewrite.scheduling.WatchableExecutionContext;
+import org.openrewrite.table.RecipeRunStats;
+import org.openrewrite.table.SourcesFileErrors;
+import org.openrewrite.table.SourcesFileResults;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Helpers for running the recipe outside of a build plugin: its configuration, the execution context a recipe run
+ * provides, and the data table files the plugins write.
+ */
+final class StandaloneRun {
+
+    private StandaloneRun() {
+    }
+
+    /**
+     * Configures the recipe the way rewrite does from {@code rewrite.options}.
+     */
+    static ProjectAerialViewGenerator recipe(Map<String, Object> options) {
+        Map<String, Object> recipe = new HashMap<>(options);
+        recipe.put("@c", ProjectAerialViewGenerator.class.getName());
+        return new ObjectMapper()
+                .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+                .convertValue(recipe, ProjectAerialViewGenerator.class);
+    }
+
+    /**
+     * @return An execution context in the first cycle of a recipe run, as data tables expect.
+     */
+    static ExecutionContext ctx() {
+        ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        ctx.putMessage(ExecutionContext.CURRENT_CYCLE, new RecipeRunCycle<>(Recipe.noop(), 1,
+                new Cursor(null, Cursor.ROOT_VALUE), new WatchableExecutionContext(ctx),
+                new RecipeRunStats(Recipe.noop()), new SourcesFileResults(Recipe.noop()),
+                new SourcesFileErrors(Recipe.noop()), (sourceSet, edit) -> sourceSet));
+        return ctx;
+    }
+
+    /**
+     * Writes each data table filled in {@code ctx} to {@code <data table name>.csv}, with a header line of column
+     * names and one of column descriptions, the way the build plugins do.
+     *
+     * @param ctx The execution context holding the data tables.
+     * @param directory The directory of the CSV files.
+     */
+    static void writeDataTables(ExecutionContext ctx, Path directory) throws IOException {
+        Map<DataTable<?>, List<?>> dataTables = ctx.getMessage(ExecutionContext.DATA_TABLES, Map.of());
+        Files.createDirectories(directory);
+        for (Map.Entry<DataTable<?>, List<?>> dataTable : dataTables.entrySet()) {
+            List<Field> columns = new ArrayList<>();
+            for (Field field : dataTable.getKey().getType().getDeclaredFields()) {
+                if (field.isAnnotationPresent(Column.class)) {
+                    field.setAccessible(true);
+                    columns.add(field);
+                }
+            }
+            Path csv = directory.resolve(dataTable.getKey().getName() + ".csv");
+            try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+                writeLine(writer, columns.stream().map(column -> column.getAnnotation(Column.class).displayName()).toList());
+                writeLine(writer, columns.stream().map(column -> column.getAnnotation(Column.class).description()).toList());
+                for (Object row : dataTable.getValue()) {
+                    List<String> values = new ArrayList<>(columns.size());
+                    for (Field column : columns) {
+                        Object value = column.get(row);
+                        values.add(value == null ? "" : value.toString());
+                    }
+                    writeLine(writer, values);
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot read the columns of " + dataTable.getKey().getName(), e);
+            }
+        }
+    }
+
+    private static void writeLine(BufferedWriter writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values.get(i);
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+                value = '"' + value.replace("\"", "\"\"") + '"';
+            }
+            writer.write(value);
+        }
+        writer.newLine();
+    }
+}
@@ -0,0 +1,167 @@
+package io.github.jtama.openrewrite;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.internal.JavaTypeCache;
+import org.openrewrite.java.marker.JavaProject;
+import org.openrewrite.java.marker.JavaSourceSet;
+import org.openrewrite.marker.Marker;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+
+/**
+ * Parses and scans source roots without a build plugin, and renders the graph like a recipe run would.
+ * <p>
+ * Usage: {@code StandaloneScan [--classpath=<entries>] [--artifact=<groupId>:<artifactId>] [--batchSize=<n>]
+ * [--mode=FORK_JOIN|VIRTUAL_THREADS] [option=value...] <output directory> <source root>...}, where options are the
+ * ones of {@link ProjectAerialViewGenerator}. The output directory receives the HTML view and the data tables under
+ * {@code datatables}.
+ * <p>
+ * Build plugins parse every source file before the recipe sees the first one. Here, batches of source files are parsed
+ * and scanned in parallel, each by its own parser, and their trees are dropped once scanned, so the heap holds a few
+ * batches at a time. A batch only holds the sources of its own classes: the source roots are added to the classpath of
+ * each parser, where the compiler finds the declarations of the classes of other batches and reads them on demand, so
+ * that references between batches are resolved without compiling the project first. Source paths are relative to the
+ * working directory, like the project directory of a build.
+ */
+public final class StandaloneScan {
+
+    private static final String USAGE = "Usage: StandaloneScan [--classpath=<entries>] [--artifact=<groupId>:<artifactId>]"
+            + " [--batchSize=<n>] [--mode=FORK_JOIN|VIRTUAL_THREADS] [option=value...] <output directory> <source root>...";
+
+    private static final int DEFAULT_BATCH_SIZE = 256;
+
+    private StandaloneScan() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, Object> options = new LinkedHashMap<>();
+        List<String> paths = new ArrayList<>();
+        List<Path> classpath = new ArrayList<>();
+        JavaProject project = null;
+        int batchSize = DEFAULT_BATCH_SIZE;
+        ParallelGraphScanner.Mode mode = ParallelGraphScanner.Mode.FORK_JOIN;
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (arg.startsWith("--") && equals > 0) {
+                String value = arg.substring(equals + 1);
+                switch (arg.substring(2, equals)) {
+                    case "classpath" -> {
+                        for (String entry : value.split(File.pathSeparator)) {
+                            classpath.add(Path.of(entry));
+                        }
+                    }
+                    case "artifact" -> project = project(value);
+                    case "batchSize" -> batchSize = Integer.parseInt(value);
+                    case "mode" -> mode = ParallelGraphScanner.Mode.valueOf(value);
+                    default -> usage();
+                }
+            } else if (equals > 0 && paths.isEmpty()) {
+                options.put(arg.substring(0, equals), arg.substring(equals + 1));
+            } else {
+                paths.add(arg);
+            }
+        }
+        if (paths.size() < 2) {
+            usage();
+        }
+        Path directory = Path.of(paths.getFirst());
+        List<Path> sourceRoots = paths.subList(1, paths.size()).stream().map(Path::of).toList();
+        ProjectAerialViewGenerator recipe = StandaloneRun.recipe(options);
+        ExecutionContext ctx = StandaloneRun.ctx();
+        GraphScanAccumulator graph = scan(recipe, sourceRoots, classpath, project,
+                new ParallelGraphScanner(recipe, mode, batchSize), ctx);
+        Files.createDirectories(directory);
+        recipe.generate(graph, ctx, directory);
+        StandaloneRun.writeDataTables(ctx, directory.resolve("datatables"));
+    }
+
+    /**
+     * Parses and scans the Java source files of source roots.
+     *
+     * @param recipe The recipe whose scanner is run.
+     * @param sourceRoots The source roots.
+     * @param classpath The classpath the sources are compiled against, which does not need to hold their own classes.
+     * @param project The project the sources belong to, which gives the default base package and the artifact of their
+     *        classes, {@code null} if unknown.
+     * @param scanner Runs the batches.
+     * @param ctx The execution context, shared by every parser and scanner.
+     * @return The scanned graph.
+     */
+    static GraphScanAccumulator scan(ProjectAerialViewGenerator recipe, List<Path> sourceRoots, List<Path> classpath,
+            @Nullable JavaProject project, ParallelGraphScanner scanner, ExecutionContext ctx) throws IOException {
+        Path projectDir = Path.of(System.getProperty("user.dir")).toAbsolutePath();
+        // Without a source path, the compiler looks for the sources of missing classes on the classpath.
+        List<Path> parserClasspath = new ArrayList<>(classpath);
+        sourceRoots.forEach(sourceRoot -> parserClasspath.add(sourceRoot.toAbsolutePath()));
+        GraphScanAccumulator graph = recipe.getInitialValue(ctx);
+        List<Marker> markers = new ArrayList<>();
+        if (project != null) {
+            markers.add(project);
+        }
+        // Like build plugins, test sources get a source set of their own, told apart the way the scanner does.
+        JavaSourceSet main = JavaSourceSet.build("main", classpath);
+        JavaSourceSet test = main.withId(UUID.randomUUID()).withName("test");
+        return scanner.parseAndScan(javaSources(sourceRoots), batch -> {
+            // Parsers and their type caches are not thread-safe, each batch gets its own.
+            JavaParser parser = JavaParser.fromJavaVersion()
+                    .classpath(parserClasspath)
+                    .typeCache(new JavaTypeCache())
+                    .build();
+            Stream<SourceFile> sourceFiles = parser.parse(batch, projectDir, ctx)
+                    .map(sourceFile -> sourceFile.withMarkers(sourceFile.getMarkers().add(
+                            sourceFile.getSourcePath().toString().contains("src/test") ? test : main)));
+            for (Marker marker : markers) {
+                sourceFiles = sourceFiles.map(sourceFile -> sourceFile.withMarkers(sourceFile.getMarkers().add(marker)));
+            }
+            return sourceFiles.toList();
+        }, graph, ctx);
+    }
+
+    /**
+     * @return The {@code .java} files under the source roots, in path order, as absolute paths.
+     */
+    static List<Path> javaSources(List<Path> sourceRoots) throws IOException {
+        List<Path> sources = new ArrayList<>();
+        for (Path sourceRoot : sourceRoots) {
+            try (Stream<Path> files = Files.walk(sourceRoot)) {
+                files.filter(file -> file.toString().endsWith(".java") && Files.isRegularFile(file))
+                        .map(file -> file.toAbsolutePath().normalize())
+                        .sorted()
+                        .forEach(sources::add);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        return sources;
+    }
+
+    private static JavaProject project(String artifact) {
+        int colon = artifact.indexOf(':');
+        if (colon <= 0) {
+            usage();
+        }
+        String artifactId = artifact.substring(colon + 1);
+        return new JavaProject(UUID.randomUUID(), artifactId,
+                new JavaProject.Publication(artifact.substring(0, colon), artifactId, "unspecified"));
+    }
+
+    private static void usage() {
+        System.err.println(USAGE);
+        System.exit(2);
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.jtama.openrewrite.graph;
+
+import java.util.Arrays;
+
+/**
+ * A compressed sparse row adjacency derived from a {@link DependencyGraph}: the neighbors of node {@code n} are
+ * {@code neighbors[offsets[n]]} to {@code neighbors[offsets[n + 1] - 1]}, sorted, with the matching {@code weights}.
+ *
+ * @param offsets The row offsets, {@code nodeCount + 1} long.
+ * @param neighbors The neighbors of each node.
+ * @param weights The weight of the link to each neighbor.
+ */
+public record Adjacency(int[] offsets, int[] neighbors, int[] weights) {
+
+    public int nodeCount() {
+        return offsets.length - 1;
+    }
+
+    public int degree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    /**
+     * @return The outgoing links of each node, that is the graph itself.
+     */
+    public static Adjacency outgoing(DependencyGraph graph) {
+        int nodeCount = graph.nodeCount();
+        int[] offsets = new int[nodeCount + 1];
+        int[] neighbors = new int[graph.linkCount()];
+        int[] weights = new int[graph.linkCount()];
+        for (int node = 0; node < nodeCount; node++) {
+            offsets[node + 1] = graph.lastLink(node);
+            for (int link = graph.firstLink(node); link < graph.lastLink(node); link++) {
+                neighbors[link] = graph.target(link);
+                weights[link] = graph.weight(link);
+            }
+        }
+        return new Adjacency(offsets, neighbors, weights);
+    }
+
+    /**
+     * @return The incoming links of each node, that is the transposed graph.
+     */
+    public static Adjacency incoming(DependencyGraph graph) {
+        int nodeCount = graph.nodeCount();
+        int[] offsets = new int[nodeCount + 1];
+        for (int link = 0; link < graph.linkCount(); link++) {
+            offsets[graph.target(link) + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            offsets[node + 1] += offsets[node];
+        }
+        int[] next = Arrays.copyOf(offsets, nodeCount);
+        int[] neighbors = new int[graph.linkCount()];
+        int[] weights = new int[graph.linkCount()];
+        // Sources are visited in increasing order, so every row ends up sorted.
+        graph.forEachLink((source, target, weight) -> {
+            neighbors[next[target]] = source;
+            weights[next[target]++] = weight;
+        });
+        return new Adjacency(offsets, neighbors, weights);
+    }
+
+    /**
+     * @return The links of each node regardless of their direction. When two nodes are linked both ways, they are
+     *         neighbors once, with the sum of both weights.
+     */
+    public static Adjacency undirected(DependencyGraph graph) {
+        Adjacency outgoing = outgoing(graph);
+        Adjacency incoming = incoming(graph);
+        int nodeCount = graph.nodeCount();
+        int[] offsets = new int[nodeCount + 1];
+        int[] neighbors = new int[graph.linkCount() * 2];
+        int[] weights = new int[graph.linkCount() * 2];
+        int size = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            int out = outgoing.offsets[node];
+            int in = incoming.offsets[node];
+            while (out < outgoing.offsets[node + 1] || in < incoming.offsets[node + 1]) {
+                int outNeighbor = out < outgoing.offsets[node + 1] ? outgoing.neighbors[out] : Integer.MAX_VALUE;
+                int inNeighbor = in < incoming.offsets[node + 1] ? incoming.neighbors[in] : Integer.MAX_VALUE;
+                int neighbor = Math.min(outNeighbor, inNeighbor);
+                int weight = 0;
+                if (outNeighbor == neighbor) {
+                    weight += outgoing.weights[out++];
+                }
+                if (inNeighbor == neighbor) {
+                    weight += incoming.weights[in++];
+                }
+                neighbors[size] = neighbor;
+                weights[size++] = weight;
+            }
+            offsets[node + 1] = size;
+        }
+        return new Adjacency(offsets, Arrays.copyOf(neighbors, size), Arrays.copyOf(weights, size));
+    }
+}
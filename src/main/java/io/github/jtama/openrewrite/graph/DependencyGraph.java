@@ -0,0 +1,396 @@
+package io.github.jtama.openrewrite.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import io.github.jtama.openrewrite.model.Link;
+import io.github.jtama.openrewrite.model.Node;
+
+/**
+ * An immutable dependency graph, stored as a compressed sparse row (CSR) adjacency.
+ * <p>
+ * Nodes are identified by their index, from {@code 0} to {@link #nodeCount()} excluded. The outgoing links of node
+ * {@code n} are the link indexes from {@link #firstLink(int) firstLink(n)} to {@link #lastLink(int) lastLink(n)}
+ * excluded, sorted by target. Names are kept as identifiers of shared {@link SymbolTable}s, and {@link Node} and
+ * {@link Link} objects are only created on demand, when the graph is reported.
+ */
+public final class DependencyGraph {
+
+    /**
+     * Receives the links of a graph.
+     */
+    @FunctionalInterface
+    public interface LinkVisitor {
+        void visit(int source, int target, int weight);
+    }
+
+    private final SymbolTable classNames;
+    private final SymbolTable labels;
+    private final int[] classIds;
+    private final int[] packageIds;
+    private final int[] artifactIds;
+    private final int[] incoming;
+    private final int[] outgoing;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+
+    // Built on the first query, as most graphs are never queried.
+    private volatile Reachability reachability;
+
+    /**
+     * Builds a graph from its raw arrays, which are not copied.
+     *
+     * @param classNames The symbol table of class names.
+     * @param labels The symbol table of package names and artifact identifiers.
+     * @param classIds The class name identifier of each node.
+     * @param packageIds The package name identifier of each node, {@code -1} if unknown.
+     * @param artifactIds The artifact identifier of each node, {@code -1} if unknown.
+     * @param incoming The number of incoming links of each node.
+     * @param outgoing The number of outgoing links of each node.
+     * @param offsets The CSR row offsets, {@code nodeCount + 1} long.
+     * @param targets The target of each link.
+     * @param weights The weight of each link.
+     */
+    public DependencyGraph(SymbolTable classNames, SymbolTable labels, int[] classIds, int[] packageIds, int[] artifactIds,
+            int[] incoming, int[] outgoing, int[] offsets, int[] targets, int[] weights) {
+        this.classNames = classNames;
+        this.labels = labels;
+        this.classIds = classIds;
+        this.packageIds = packageIds;
+        this.artifactIds = artifactIds;
+        this.incoming = incoming;
+        this.outgoing = outgoing;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Builds the CSR graph of the given links, with connection counts computed from the links themselves.
+     *
+     * @param classNames The symbol table of class names.
+     * @param labels The symbol table of package names and artifact identifiers.
+     * @param classIds The class name identifier of each node.
+     * @param packageIds The package name identifier of each node, {@code -1} if unknown.
+     * @param artifactIds The artifact identifier of each node, {@code -1} if unknown.
+     * @param links The links between nodes.
+     * @return The graph.
+     */
+    public static DependencyGraph of(SymbolTable classNames, SymbolTable labels, int[] classIds, int[] packageIds,
+            int[] artifactIds, LinkTable links) {
+        int nodeCount = classIds.length;
+        // Links are read once: once spilled, each pass over the table merges its runs again.
+        LinkBuffer buffer = new LinkBuffer(links.size());
+        links.forEach(buffer);
+        int[] offsets = new int[nodeCount + 1];
+        for (int link = 0; link < buffer.size; link++) {
+            offsets[buffer.sources[link] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            offsets[node + 1] += offsets[node];
+        }
+        long[] packed = new long[offsets[nodeCount]];
+        int[] next = Arrays.copyOf(offsets, nodeCount);
+        for (int link = 0; link < buffer.size; link++) {
+            packed[next[buffer.sources[link]]++] = buffer.packed[link];
+        }
+        // The buffer is dropped before the final arrays are allocated.
+        buffer = null;
+
+        int[] targets = new int[packed.length];
+        int[] weights = new int[packed.length];
+        int[] incoming = new int[nodeCount];
+        int[] outgoing = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            Arrays.sort(packed, offsets[node], offsets[node + 1]);
+            outgoing[node] = offsets[node + 1] - offsets[node];
+        }
+        for (int link = 0; link < packed.length; link++) {
+            targets[link] = (int) (packed[link] >>> 32);
+            weights[link] = (int) packed[link];
+            incoming[targets[link]]++;
+        }
+        return new DependencyGraph(classNames, labels, classIds, packageIds, artifactIds, incoming, outgoing, offsets,
+                targets, weights);
+    }
+
+    public int nodeCount() {
+        return classIds.length;
+    }
+
+    public int linkCount() {
+        return targets.length;
+    }
+
+    public String className(int node) {
+        return classNames.symbol(classIds[node]);
+    }
+
+    public String packageName(int node) {
+        return labels.symbol(packageIds[node]);
+    }
+
+    public String artifactId(int node) {
+        return labels.symbol(artifactIds[node]);
+    }
+
+    public int incomingConnections(int node) {
+        return incoming[node];
+    }
+
+    public int outgoingConnections(int node) {
+        return outgoing[node];
+    }
+
+    /**
+     * @return The index of the first outgoing link of {@code node}.
+     */
+    public int firstLink(int node) {
+        return offsets[node];
+    }
+
+    /**
+     * @return The index following the last outgoing link of {@code node}.
+     */
+    public int lastLink(int node) {
+        return offsets[node + 1];
+    }
+
+    public int target(int link) {
+        return targets[link];
+    }
+
+    public int weight(int link) {
+        return weights[link];
+    }
+
+    /**
+     * @param className A fully qualified class name.
+     * @return The node of this class, or {@code -1} if the class is not part of the graph.
+     */
+    public int find(String className) {
+        int classId = classNames.find(className);
+        if (classId < 0) {
+            return -1;
+        }
+        if (classId < classIds.length && classIds[classId] == classId) {
+            return classId;
+        }
+        for (int node = 0; node < classIds.length; node++) {
+            if (classIds[node] == classId) {
+                return node;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The reachability engine of this graph, built once and shared by every query, so that repeated queries
+     *         are answered from its cache.
+     */
+    public Reachability reachability() {
+        Reachability engine = reachability;
+        if (engine == null) {
+            synchronized (this) {
+                engine = reachability;
+                if (engine == null) {
+                    reachability = engine = new Reachability(this);
+                }
+            }
+        }
+        return engine;
+    }
+
+    /**
+     * Visits every link, by source then target order.
+     *
+     * @param visitor The link visitor.
+     */
+    public void forEachLink(LinkVisitor visitor) {
+        for (int source = 0; source < nodeCount(); source++) {
+            for (int link = offsets[source]; link < offsets[source + 1]; link++) {
+                visitor.visit(source, targets[link], weights[link]);
+            }
+        }
+    }
+
+    /**
+     * Extracts the subgraph of the given nodes. Nodes keep their relative order, and their connection counts, which
+     * still describe the whole graph.
+     *
+     * @param kept The nodes to keep.
+     * @return The subgraph, holding the links between kept nodes only.
+     */
+    public DependencyGraph subgraph(BitSet kept) {
+        int[] renumbered = new int[nodeCount()];
+        int keptCount = 0;
+        for (int node = 0; node < nodeCount(); node++) {
+            renumbered[node] = kept.get(node) ? keptCount++ : -1;
+        }
+        int[] newClassIds = new int[keptCount];
+        int[] newPackageIds = new int[keptCount];
+        int[] newArtifactIds = new int[keptCount];
+        int[] newIncoming = new int[keptCount];
+        int[] newOutgoing = new int[keptCount];
+        int[] newOffsets = new int[keptCount + 1];
+        int linkCount = 0;
+        for (int node = kept.nextSetBit(0); node >= 0; node = kept.nextSetBit(node + 1)) {
+            for (int link = offsets[node]; link < offsets[node + 1]; link++) {
+                if (renumbered[targets[link]] >= 0) {
+                    linkCount++;
+                }
+            }
+        }
+        int[] newTargets = new int[linkCount];
+        int[] newWeights = new int[linkCount];
+        int link = 0;
+        for (int node = kept.nextSetBit(0); node >= 0; node = kept.nextSetBit(node + 1)) {
+            int newNode = renumbered[node];
+            newClassIds[newNode] = classIds[node];
+            newPackageIds[newNode] = packageIds[node];
+            newArtifactIds[newNode] = artifactIds[node];
+            newIncoming[newNode] = incoming[node];
+            newOutgoing[newNode] = outgoing[node];
+            for (int oldLink = offsets[node]; oldLink < offsets[node + 1]; oldLink++) {
+                if (renumbered[targets[oldLink]] >= 0) {
+                    newTargets[link] = renumbered[targets[oldLink]];
+                    newWeights[link++] = weights[oldLink];
+                }
+            }
+            newOffsets[newNode + 1] = link;
+        }
+        return new DependencyGraph(classNames, labels, newClassIds, newPackageIds, newArtifactIds, newIncoming,
+                newOutgoing, newOffsets, newTargets, newWeights);
+    }
+
+    /**
+     * @return The graph of packages, where each node is a package and links sum the weights of the links between classes
+     *         of different packages.
+     */
+    public DependencyGraph packages() {
+        return aggregate(packageIds);
+    }
+
+    /**
+     * @return The graph of artifacts, where each node is an artifact and links sum the weights of the links between
+     *         classes of different artifacts. Classes whose artifact is unknown are left out.
+     */
+    public DependencyGraph artifacts() {
+        return aggregate(artifactIds);
+    }
+
+    /**
+     * Merges the nodes sharing the same label into a single node, named after the label. Groups keep the package and
+     * the artifact of their nodes when all the known ones are the same. Links inside a group are dropped.
+     *
+     * @param groupLabels The label of the group of each node, {@code -1} to leave the node out.
+     */
+    private DependencyGraph aggregate(int[] groupLabels) {
+        int[] groupOfLabel = new int[labels.size()];
+        Arrays.fill(groupOfLabel, -1);
+        int[] groups = new int[nodeCount()];
+        int[] groupLabelIds = new int[nodeCount()];
+        int[] groupPackageIds = new int[nodeCount()];
+        int[] groupArtifactIds = new int[nodeCount()];
+        int groupCount = 0;
+        for (int node = 0; node < nodeCount(); node++) {
+            int label = groupLabels[node];
+            if (label < 0) {
+                groups[node] = -1;
+                continue;
+            }
+            int group = groupOfLabel[label];
+            if (group == -1) {
+                group = groupOfLabel[label] = groupCount++;
+                groupLabelIds[group] = label;
+                groupPackageIds[group] = packageIds[node];
+                groupArtifactIds[group] = artifactIds[node];
+            } else {
+                groupPackageIds[group] = common(groupPackageIds[group], packageIds[node]);
+                groupArtifactIds[group] = common(groupArtifactIds[group], artifactIds[node]);
+            }
+            groups[node] = group;
+        }
+        for (int group = 0; group < groupCount; group++) {
+            groupPackageIds[group] = Math.max(groupPackageIds[group], -1);
+            groupArtifactIds[group] = Math.max(groupArtifactIds[group], -1);
+        }
+        LinkTable groupLinks = new LinkTable();
+        forEachLink((source, target, weight) -> {
+            if (groups[source] >= 0 && groups[target] >= 0 && groups[source] != groups[target]) {
+                groupLinks.add(groups[source], groups[target], weight);
+            }
+        });
+        return of(labels, labels, Arrays.copyOf(groupLabelIds, groupCount), Arrays.copyOf(groupPackageIds, groupCount),
+                Arrays.copyOf(groupArtifactIds, groupCount), groupLinks);
+    }
+
+    /**
+     * @return The label shared by a group and a new member: {@code -1} while unknown, {@code -2} once two differ.
+     */
+    private static int common(int groupLabel, int label) {
+        if (groupLabel == -1 || groupLabel == label) {
+            return label == -1 ? groupLabel : label;
+        }
+        return label == -1 ? groupLabel : -2;
+    }
+
+    /**
+     * @return A new {@link Node} describing {@code node}.
+     */
+    public Node node(int node) {
+        return new Node(className(node), packageName(node), artifactId(node), incoming[node], outgoing[node]);
+    }
+
+    /**
+     * @return A new {@link Node} for each node of the graph.
+     */
+    public List<Node> nodes() {
+        List<Node> nodes = new ArrayList<>(nodeCount());
+        for (int node = 0; node < nodeCount(); node++) {
+            nodes.add(node(node));
+        }
+        return nodes;
+    }
+
+    /**
+     * @return A new {@link Link} for each link of the graph.
+     */
+    public List<Link> links() {
+        List<Link> links = new ArrayList<>(linkCount());
+        forEachLink((source, target, weight) -> links.add(new Link(className(source), className(target), weight)));
+        return links;
+    }
+
+    /**
+     * The links of a table, read in one pass. Target and weight are packed together so that sorting a row sorts both by
+     * target.
+     */
+    private static final class LinkBuffer implements LinkTable.LinkConsumer {
+
+        int[] sources;
+        long[] packed;
+        int size;
+
+        /**
+         * @param capacity The expected number of links, an upper bound of it being enough to never grow.
+         */
+        LinkBuffer(int capacity) {
+            sources = new int[Math.max(16, capacity)];
+            packed = new long[sources.length];
+        }
+
+        @Override
+        public void accept(int source, int target, int weight) {
+            if (size == sources.length) {
+                sources = Arrays.copyOf(sources, size * 2);
+                packed = Arrays.copyOf(packed, size * 2);
+            }
+            sources[size] = source;
+            packed[size++] = ((long) target << 32) | (weight & 0xFFFFFFFFL);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package io.github.jtama.openrewrite.graph;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * A Fruchterman-Reingold force-directed layout, where the repulsion between every pair of nodes is approximated with a
+ * Barnes-Hut quadtree.
+ * <p>
+ * Linked nodes attract each other, every node repels every other node, and a light gravity keeps disconnected parts
+ * together. Node moves are bounded by a temperature that cools down linearly over the iteration budget. Initial
+ * positions are drawn from a seeded random, and forces of each node are computed independently, in parallel, so the
+ * layout of a graph only depends on the seed and the iteration budget.
+ */
+public final class ForceLayout {
+
+    /**
+     * The ideal distance between two linked nodes.
+     */
+    private static final double DISTANCE = 30;
+
+    /**
+     * Cells seen under a smaller angle than this are approximated by their center of mass.
+     */
+    private static final double THETA = 0.9;
+
+    private static final double GRAVITY = 0.1;
+
+    private final int iterations;
+
+    private final long seed;
+
+    /**
+     * @param iterations The number of iterations to run.
+     * @param seed The seed of the initial positions.
+     */
+    public ForceLayout(int iterations, long seed) {
+        if (iterations < 0) {
+            throw new IllegalArgumentException("iterations must be positive, was " + iterations);
+        }
+        this.iterations = iterations;
+        this.seed = seed;
+    }
+
+    /**
+     * @return The position of each node, {@code x} at index {@code 2 * node} and {@code y} at index
+     *         {@code 2 * node + 1}.
+     */
+    public double[] layout(DependencyGraph graph) {
+        int nodeCount = graph.nodeCount();
+        double[] positions = new double[2 * nodeCount];
+        double extent = DISTANCE * Math.sqrt(nodeCount);
+        Random random = new Random(seed);
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = (random.nextDouble() - 0.5) * extent;
+        }
+        double[] displacements = new double[2 * nodeCount];
+        double initialTemperature = extent / 10;
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            QuadTree tree = QuadTree.of(positions);
+            IntStream.range(0, nodeCount).parallel().forEach(node -> {
+                tree.repulsion(node, positions, displacements);
+                displacements[2 * node] -= GRAVITY * positions[2 * node];
+                displacements[2 * node + 1] -= GRAVITY * positions[2 * node + 1];
+            });
+            graph.forEachLink((source, target, weight) -> {
+                double dx = positions[2 * source] - positions[2 * target];
+                double dy = positions[2 * source + 1] - positions[2 * target + 1];
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                // The attraction is distance² / DISTANCE, along the link.
+                double factor = distance / DISTANCE;
+                displacements[2 * source] -= dx * factor;
+                displacements[2 * source + 1] -= dy * factor;
+                displacements[2 * target] += dx * factor;
+                displacements[2 * target + 1] += dy * factor;
+            });
+            double temperature = initialTemperature * (1 - (double) iteration / iterations);
+            for (int node = 0; node < nodeCount; node++) {
+                double dx = displacements[2 * node];
+                double dy = displacements[2 * node + 1];
+                double length = Math.sqrt(dx * dx + dy * dy);
+                if (length > 0) {
+                    double move = Math.min(length, temperature) / length;
+                    positions[2 * node] += dx * move;
+                    positions[2 * node + 1] += dy * move;
+                }
+            }
+            Arrays.fill(displacements, 0);
+        }
+        return positions;
+    }
+
+    /**
+     * A quadtree of node positions, stored in arrays. Each cell knows its node count and center of mass.
+     */
+    private static final class QuadTree {
+
+        private static final int MAX_DEPTH = 32;
+
+        private double[] centerXs;
+        private double[] centerYs;
+        private double[] halfSizes;
+        private double[] massXs;
+        private double[] massYs;
+        private int[] masses;
+        /**
+         * The node of a leaf holding a single node, {@code -1} otherwise.
+         */
+        private int[] nodes;
+        /**
+         * The four children of each cell, {@code -1} for empty ones. A cell without children is a leaf.
+         */
+        private int[] children;
+        private int size;
+
+        private QuadTree(int capacity) {
+            centerXs = new double[capacity];
+            centerYs = new double[capacity];
+            halfSizes = new double[capacity];
+            massXs = new double[capacity];
+            massYs = new double[capacity];
+            masses = new int[capacity];
+            nodes = new int[capacity];
+            children = new int[4 * capacity];
+        }
+
+        static QuadTree of(double[] positions) {
+            int nodeCount = positions.length / 2;
+            double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+            for (int node = 0; node < nodeCount; node++) {
+                minX = Math.min(minX, positions[2 * node]);
+                maxX = Math.max(maxX, positions[2 * node]);
+                minY = Math.min(minY, positions[2 * node + 1]);
+                maxY = Math.max(maxY, positions[2 * node + 1]);
+            }
+            QuadTree tree = new QuadTree(Math.max(1, nodeCount * 2));
+            tree.cell((minX + maxX) / 2, (minY + maxY) / 2, Math.max(maxX - minX, maxY - minY) / 2 + 1);
+            for (int node = 0; node < nodeCount; node++) {
+                tree.insert(node, positions[2 * node], positions[2 * node + 1]);
+            }
+            return tree;
+        }
+
+        private int cell(double centerX, double centerY, double halfSize) {
+            if (size == masses.length) {
+                int capacity = size * 2;
+                centerXs = Arrays.copyOf(centerXs, capacity);
+                centerYs = Arrays.copyOf(centerYs, capacity);
+                halfSizes = Arrays.copyOf(halfSizes, capacity);
+                massXs = Arrays.copyOf(massXs, capacity);
+                massYs = Arrays.copyOf(massYs, capacity);
+                masses = Arrays.copyOf(masses, capacity);
+                nodes = Arrays.copyOf(nodes, capacity);
+                children = Arrays.copyOf(children, 4 * capacity);
+            }
+            int cell = size++;
+            centerXs[cell] = centerX;
+            centerYs[cell] = centerY;
+            halfSizes[cell] = halfSize;
+            nodes[cell] = -1;
+            Arrays.fill(children, 4 * cell, 4 * cell + 4, -1);
+            return cell;
+        }
+
+        private boolean isLeaf(int cell) {
+            return children[4 * cell] == -1 && children[4 * cell + 1] == -1 && children[4 * cell + 2] == -1
+                    && children[4 * cell + 3] == -1;
+        }
+
+        private int quadrant(int cell, double x, double y) {
+            return (x >= centerXs[cell] ? 1 : 0) + (y >= centerYs[cell] ? 2 : 0);
+        }
+
+        private int child(int cell, int quadrant) {
+            if (children[4 * cell + quadrant] == -1) {
+                double quarter = halfSizes[cell] / 2;
+                int child = cell(centerXs[cell] + ((quadrant & 1) == 0 ? -quarter : quarter),
+                        centerYs[cell] + ((quadrant & 2) == 0 ? -quarter : quarter), quarter);
+                children[4 * cell + quadrant] = child;
+            }
+            return children[4 * cell + quadrant];
+        }
+
+        private void insert(int node, double x, double y) {
+            int cell = 0;
+            for (int depth = 0;; depth++) {
+                if (masses[cell] == 0 || depth == MAX_DEPTH) {
+                    // An empty leaf, or a leaf of nodes too close to be told apart.
+                    nodes[cell] = masses[cell] == 0 ? node : -1;
+                    add(cell, x, y);
+                    return;
+                }
+                if (isLeaf(cell)) {
+                    int other = nodes[cell];
+                    if (other == -1) {
+                        add(cell, x, y);
+                        return;
+                    }
+                    // Pushes the node of the leaf down, as if it was inserted in an internal cell.
+                    double otherX = massXs[cell];
+                    double otherY = massYs[cell];
+                    int otherChild = child(cell, quadrant(cell, otherX, otherY));
+                    nodes[otherChild] = other;
+                    masses[otherChild] = 1;
+                    massXs[otherChild] = otherX;
+                    massYs[otherChild] = otherY;
+                    nodes[cell] = -1;
+                }
+                add(cell, x, y);
+                cell = child(cell, quadrant(cell, x, y));
+            }
+        }
+
+        private void add(int cell, double x, double y) {
+            massXs[cell] += x;
+            massYs[cell] += y;
+            masses[cell]++;
+        }
+
+        /**
+         * Adds the repulsion of every other node to the displacement of {@code node}.
+         */
+        void repulsion(int node, double[] positions, double[] displacements) {
+            double x = positions[2 * node];
+            double y = positions[2 * node + 1];
+            double forceX = 0;
+            double forceY = 0;
+            int[] stack = new int[4 * MAX_DEPTH + 4];
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int cell = stack[--top];
+                if (masses[cell] == 0 || nodes[cell] == node) {
+                    continue;
+                }
+                double dx = x - massXs[cell] / masses[cell];
+                double dy = y - massYs[cell] / masses[cell];
+                double squaredDistance = dx * dx + dy * dy;
+                boolean leaf = isLeaf(cell);
+                if (leaf || 4 * halfSizes[cell] * halfSizes[cell] < THETA * THETA * squaredDistance) {
+                    if (squaredDistance > 0) {
+                        // The repulsion is DISTANCE² / distance, away from the center of mass.
+                        double factor = DISTANCE * DISTANCE * masses[cell] / squaredDistance;
+                        forceX += dx * factor;
+                        forceY += dy * factor;
+                    }
+                } else {
+                    for (int quadrant = 0; quadrant < 4; quadrant++) {
+                        if (children[4 * cell + quadrant] != -1) {
+                            stack[top++] = children[4 * cell + quadrant];
+                        }
+                    }
+                }
+            }
+            displacements[2 * node] += forceX;
+            displacements[2 * node + 1] += forceY;
+        }
+    }
+}
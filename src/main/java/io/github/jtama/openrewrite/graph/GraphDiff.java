@@ -0,0 +1,181 @@
+package io.github.jtama.openrewrite.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The changes between a baseline graph and the current one, nodes being matched by name.
+ * <p>
+ * Nodes of both graphs are numbered together, current nodes first and then the nodes only found in the baseline. The
+ * baseline links are renumbered and sorted by source then target, like the links of the current graph, so both link
+ * sets are compared by merging their rows. The diff takes linear time, apart from sorting each baseline row, and only
+ * creates names for the nodes and links that changed.
+ */
+public final class GraphDiff {
+
+    public enum Change {
+        ADDED,
+        REMOVED,
+        REWEIGHTED;
+
+        /**
+         * @return The name of the change, as shown in the data tables and the HTML view.
+         */
+        public String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * A node that was added, removed or whose connection counts changed. Counts are {@code 0} on the side where the
+     * node does not exist.
+     */
+    public record NodeChange(Change change, String name, int baselineIncoming, int incoming, int baselineOutgoing,
+            int outgoing) {
+    }
+
+    /**
+     * A link that was added, removed or whose weight changed. Weights are {@code 0} on the side where the link does not
+     * exist.
+     */
+    public record LinkChange(Change change, String source, String target, int baselineWeight, int weight) {
+    }
+
+    private final List<NodeChange> nodes;
+
+    private final List<LinkChange> links;
+
+    private GraphDiff(List<NodeChange> nodes, List<LinkChange> links) {
+        this.nodes = nodes;
+        this.links = links;
+    }
+
+    /**
+     * @param baseline The graph to compare with.
+     * @param current The graph of the current scan.
+     * @return The changes, current nodes and links first, in graph order, then the removed ones in baseline order.
+     */
+    public static GraphDiff of(DependencyGraph baseline, DependencyGraph current) {
+        int currentCount = current.nodeCount();
+        Map<String, Integer> currentNodes = new HashMap<>(2 * currentCount);
+        for (int node = 0; node < currentCount; node++) {
+            currentNodes.put(current.className(node), node);
+        }
+        // Node numbers of both graphs: current nodes, then nodes only found in the baseline.
+        int[] renumbered = new int[baseline.nodeCount()];
+        int[] baselineNodes = new int[currentCount + baseline.nodeCount()];
+        Arrays.fill(baselineNodes, -1);
+        int nodeCount = currentCount;
+        for (int node = 0; node < baseline.nodeCount(); node++) {
+            Integer currentNode = currentNodes.get(baseline.className(node));
+            renumbered[node] = currentNode == null ? nodeCount++ : currentNode;
+            baselineNodes[renumbered[node]] = node;
+        }
+
+        List<NodeChange> nodeChanges = new ArrayList<>();
+        for (int node = 0; node < nodeCount; node++) {
+            int baselineNode = baselineNodes[node];
+            if (baselineNode < 0) {
+                nodeChanges.add(new NodeChange(Change.ADDED, current.className(node), 0,
+                        current.incomingConnections(node), 0, current.outgoingConnections(node)));
+            } else if (node >= currentCount) {
+                nodeChanges.add(new NodeChange(Change.REMOVED, baseline.className(baselineNode),
+                        baseline.incomingConnections(baselineNode), 0, baseline.outgoingConnections(baselineNode), 0));
+            } else if (baseline.incomingConnections(baselineNode) != current.incomingConnections(node)
+                    || baseline.outgoingConnections(baselineNode) != current.outgoingConnections(node)) {
+                nodeChanges.add(new NodeChange(Change.REWEIGHTED, current.className(node),
+                        baseline.incomingConnections(baselineNode), current.incomingConnections(node),
+                        baseline.outgoingConnections(baselineNode), current.outgoingConnections(node)));
+            }
+        }
+
+        // The baseline links in compressed sparse rows of the common numbering, target and weight packed together.
+        int[] offsets = new int[nodeCount + 1];
+        baseline.forEachLink((source, target, weight) -> offsets[renumbered[source] + 1]++);
+        for (int node = 0; node < nodeCount; node++) {
+            offsets[node + 1] += offsets[node];
+        }
+        long[] packed = new long[baseline.linkCount()];
+        int[] next = Arrays.copyOf(offsets, nodeCount);
+        baseline.forEachLink((source, target, weight) -> packed[next[renumbered[source]]++] = ((long) renumbered[target] << 32)
+                | (weight & 0xFFFFFFFFL));
+
+        List<LinkChange> linkChanges = new ArrayList<>();
+        List<LinkChange> removedLinks = new ArrayList<>();
+        for (int source = 0; source < nodeCount; source++) {
+            Arrays.sort(packed, offsets[source], offsets[source + 1]);
+            int link = source < currentCount ? current.firstLink(source) : 0;
+            int lastLink = source < currentCount ? current.lastLink(source) : 0;
+            int baselineLink = offsets[source];
+            while (link < lastLink || baselineLink < offsets[source + 1]) {
+                int target = link < lastLink ? current.target(link) : Integer.MAX_VALUE;
+                int baselineTarget = baselineLink < offsets[source + 1] ? (int) (packed[baselineLink] >>> 32)
+                        : Integer.MAX_VALUE;
+                if (target < baselineTarget) {
+                    linkChanges.add(new LinkChange(Change.ADDED, current.className(source), current.className(target), 0,
+                            current.weight(link)));
+                    link++;
+                } else if (baselineTarget < target) {
+                    removedLinks.add(new LinkChange(Change.REMOVED, name(baseline, current, baselineNodes, source),
+                            name(baseline, current, baselineNodes, baselineTarget), (int) packed[baselineLink], 0));
+                    baselineLink++;
+                } else {
+                    if ((int) packed[baselineLink] != current.weight(link)) {
+                        linkChanges.add(new LinkChange(Change.REWEIGHTED, current.className(source),
+                                current.className(target), (int) packed[baselineLink], current.weight(link)));
+                    }
+                    link++;
+                    baselineLink++;
+                }
+            }
+        }
+        linkChanges.addAll(removedLinks);
+        return new GraphDiff(nodeChanges, linkChanges);
+    }
+
+    private static String name(DependencyGraph baseline, DependencyGraph current, int[] baselineNodes, int node) {
+        return node < current.nodeCount() ? current.className(node) : baseline.className(baselineNodes[node]);
+    }
+
+    public List<NodeChange> nodes() {
+        return nodes;
+    }
+
+    public List<LinkChange> links() {
+        return links;
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty() && links.isEmpty();
+    }
+
+    /**
+     * @return The number of node and link changes, by change label, under {@code nodes} and {@code links}.
+     */
+    public Map<String, Map<String, Integer>> summary() {
+        Map<Change, Integer> nodeCounts = new EnumMap<>(Change.class);
+        Map<Change, Integer> linkCounts = new EnumMap<>(Change.class);
+        for (Change change : Change.values()) {
+            nodeCounts.put(change, 0);
+            linkCounts.put(change, 0);
+        }
+        nodes.forEach(node -> nodeCounts.merge(node.change(), 1, Integer::sum));
+        links.forEach(link -> linkCounts.merge(link.change(), 1, Integer::sum));
+        Map<String, Map<String, Integer>> summary = new LinkedHashMap<>();
+        summary.put("nodes", labels(nodeCounts));
+        summary.put("links", labels(linkCounts));
+        return summary;
+    }
+
+    private static Map<String, Integer> labels(Map<Change, Integer> counts) {
+        Map<String, Integer> labels = new LinkedHashMap<>();
+        counts.forEach((change, count) -> labels.put(change.label(), count));
+        return labels;
+    }
+}
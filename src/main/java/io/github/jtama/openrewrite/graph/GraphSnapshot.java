@@ -0,0 +1,254 @@
+package io.github.jtama.openrewrite.graph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A dependency graph stored in a compact binary file, read through a memory mapping.
+ * <p>
+ * The file is made of a header, the node records, the link records, the string offsets and the UTF-8 string data. All
+ * numbers are big-endian {@code int}s:
+ * <ul>
+ * <li>header: magic, format version, string count, node count, link count;</li>
+ * <li>node: class name, package name and artifact identifier, as string identifiers, {@code -1} if unknown;</li>
+ * <li>link: source node, target node and weight, by source then target order;</li>
+ * <li>string offsets: the start of each string in the string data, followed by the end of the last one.</li>
+ * </ul>
+ * Records have a fixed size, so a node, a link or a string is read in place, without decoding the rest of the file.
+ * Offsets are {@code int}s and the file is mapped as a single buffer, so a snapshot is at most 2 GB.
+ */
+public final class GraphSnapshot {
+
+    private static final int MAGIC = 0x50415647;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+
+    private static final int RECORD_BYTES = 3 * Integer.BYTES;
+
+    private final ByteBuffer buffer;
+
+    private final int stringCount;
+
+    private final int nodeCount;
+
+    private final int linkCount;
+
+    private final int linksStart;
+
+    private final int offsetsStart;
+
+    private final int stringsStart;
+
+    private GraphSnapshot(ByteBuffer buffer, int stringCount, int nodeCount, int linkCount) {
+        this.buffer = buffer;
+        this.stringCount = stringCount;
+        this.nodeCount = nodeCount;
+        this.linkCount = linkCount;
+        this.linksStart = HEADER_BYTES + nodeCount * RECORD_BYTES;
+        this.offsetsStart = linksStart + linkCount * RECORD_BYTES;
+        this.stringsStart = offsetsStart + (stringCount + 1) * Integer.BYTES;
+    }
+
+    /**
+     * Writes a graph. Names are stored once, whatever the number of nodes sharing them. The snapshot is written to a
+     * temporary file then moved in place, so that a crash never leaves a truncated snapshot behind.
+     *
+     * @param graph The graph to write.
+     * @param path The snapshot file, replaced if it exists.
+     * @throws IllegalArgumentException If the snapshot would be larger than 2 GB.
+     */
+    public static void write(DependencyGraph graph, Path path) throws IOException {
+        SymbolTable strings = new SymbolTable();
+        int[] nodeStrings = new int[3 * graph.nodeCount()];
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            nodeStrings[3 * node] = strings.intern(graph.className(node));
+            nodeStrings[3 * node + 1] = intern(strings, graph.packageName(node));
+            nodeStrings[3 * node + 2] = intern(strings, graph.artifactId(node));
+        }
+        byte[][] encoded = new byte[strings.size()][];
+        for (int string = 0; string < encoded.length; string++) {
+            encoded[string] = strings.symbol(string).getBytes(StandardCharsets.UTF_8);
+        }
+        long size = HEADER_BYTES + (long) (graph.nodeCount() + graph.linkCount()) * RECORD_BYTES
+                + (long) (encoded.length + 1) * Integer.BYTES;
+        for (byte[] string : encoded) {
+            size += string.length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A graph snapshot is at most 2 GB, this one would be " + size + " bytes");
+        }
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            write(graph, nodeStrings, encoded, temporary);
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void write(DependencyGraph graph, int[] nodeStrings, byte[][] encoded, Path path)
+            throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(encoded.length);
+            out.writeInt(graph.nodeCount());
+            out.writeInt(graph.linkCount());
+            for (int nodeString : nodeStrings) {
+                out.writeInt(nodeString);
+            }
+            for (int source = 0; source < graph.nodeCount(); source++) {
+                for (int link = graph.firstLink(source); link < graph.lastLink(source); link++) {
+                    out.writeInt(source);
+                    out.writeInt(graph.target(link));
+                    out.writeInt(graph.weight(link));
+                }
+            }
+            int offset = 0;
+            for (byte[] string : encoded) {
+                out.writeInt(offset);
+                offset += string.length;
+            }
+            out.writeInt(offset);
+            for (byte[] string : encoded) {
+                out.write(string);
+            }
+        }
+    }
+
+    private static int intern(SymbolTable strings, String string) {
+        return string == null ? -1 : strings.intern(string);
+    }
+
+    /**
+     * Maps a snapshot file. Nothing is decoded until a node, a link or a string is read.
+     *
+     * @param path The snapshot file.
+     * @return The mapped snapshot.
+     * @throws IllegalArgumentException If the file is not a snapshot of a supported version.
+     */
+    public static GraphSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Not a graph snapshot: " + path);
+            }
+            // The mapping stays valid once the channel is closed.
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Not a graph snapshot, or of another format version: " + path);
+            }
+            return new GraphSnapshot(buffer, buffer.getInt(2 * Integer.BYTES), buffer.getInt(3 * Integer.BYTES),
+                    buffer.getInt(4 * Integer.BYTES));
+        }
+    }
+
+    public int stringCount() {
+        return stringCount;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int linkCount() {
+        return linkCount;
+    }
+
+    /**
+     * @param string A string identifier, or {@code -1}.
+     * @return The decoded string, or {@code null} for {@code -1}.
+     */
+    public String string(int string) {
+        if (string < 0) {
+            return null;
+        }
+        int start = buffer.getInt(offsetsStart + string * Integer.BYTES);
+        int end = buffer.getInt(offsetsStart + (string + 1) * Integer.BYTES);
+        byte[] bytes = new byte[end - start];
+        buffer.get(stringsStart + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public String className(int node) {
+        return string(buffer.getInt(HEADER_BYTES + node * RECORD_BYTES));
+    }
+
+    public String packageName(int node) {
+        return string(buffer.getInt(HEADER_BYTES + node * RECORD_BYTES + Integer.BYTES));
+    }
+
+    public String artifactId(int node) {
+        return string(buffer.getInt(HEADER_BYTES + node * RECORD_BYTES + 2 * Integer.BYTES));
+    }
+
+    public int source(int link) {
+        return buffer.getInt(linksStart + link * RECORD_BYTES);
+    }
+
+    public int target(int link) {
+        return buffer.getInt(linksStart + link * RECORD_BYTES + Integer.BYTES);
+    }
+
+    public int weight(int link) {
+        return buffer.getInt(linksStart + link * RECORD_BYTES + 2 * Integer.BYTES);
+    }
+
+    /**
+     * Visits every link, by source then target order.
+     *
+     * @param visitor The link visitor.
+     */
+    public void forEachLink(DependencyGraph.LinkVisitor visitor) {
+        for (int link = 0; link < linkCount; link++) {
+            visitor.visit(source(link), target(link), weight(link));
+        }
+    }
+
+    /**
+     * Decodes the whole snapshot.
+     *
+     * @return The graph, whose nodes are numbered as in the snapshot.
+     */
+    public DependencyGraph toGraph() {
+        SymbolTable classNames = new SymbolTable();
+        SymbolTable labels = new SymbolTable();
+        int[] classIds = new int[nodeCount];
+        int[] packageIds = new int[nodeCount];
+        int[] artifactIds = new int[nodeCount];
+        // Each string is decoded once, even when shared by many nodes.
+        int[] labelIds = new int[stringCount];
+        Arrays.fill(labelIds, -1);
+        for (int node = 0; node < nodeCount; node++) {
+            classIds[node] = classNames.intern(className(node));
+            packageIds[node] = label(labels, labelIds, buffer.getInt(HEADER_BYTES + node * RECORD_BYTES + Integer.BYTES));
+            artifactIds[node] = label(labels, labelIds,
+                    buffer.getInt(HEADER_BYTES + node * RECORD_BYTES + 2 * Integer.BYTES));
+        }
+        LinkTable links = new LinkTable();
+        forEachLink(links::add);
+        return DependencyGraph.of(classNames, labels, classIds, packageIds, artifactIds, links);
+    }
+
+    private int label(SymbolTable labels, int[] labelIds, int string) {
+        if (string < 0) {
+            return -1;
+        }
+        if (labelIds[string] < 0) {
+            labelIds[string] = labels.intern(string(string));
+        }
+        return labelIds[string];
+    }
+}
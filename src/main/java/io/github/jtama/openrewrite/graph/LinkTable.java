@@ -0,0 +1,516 @@
+package io.github.jtama.openrewrite.graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accumulates weighted links between node identifiers in primitive arrays.
+ * <p>
+ * Each (source, target) pair is packed in a {@code long} key of an open addressing hash table, next to its weight, so
+ * a link costs about twenty bytes instead of a {@code Link} object and its hash map entry. The table is split into
+ * independently locked segments, so concurrent scanners only contend when they hit the same segment at the same time.
+ * <p>
+ * A table may be given a maximum number of links to hold in memory. Once it holds that many, its links are written to
+ * a temporary file, a run sorted by source then target, and the table starts over empty. Reading the table then merges
+ * the runs with the links still in memory, summing the weights of the links found several times, so the heap needed
+ * while links are added depends on the budget, not on the graph. {@link #close()} deletes the runs.
+ */
+public final class LinkTable implements AutoCloseable {
+
+    /**
+     * Receives the links of a table.
+     */
+    @FunctionalInterface
+    public interface LinkConsumer {
+        void accept(int source, int target, int weight);
+    }
+
+    private static final int SEGMENT_BITS = 6;
+
+    /**
+     * A spilled link: its key, then its weight.
+     */
+    private static final int RECORD_BYTES = Long.BYTES + Integer.BYTES;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    private final int maxLinksInMemory;
+
+    private final AtomicInteger linksInMemory = new AtomicInteger();
+
+    /**
+     * The sorted runs spilled so far, and the number of links they hold. Guarded by {@link #runs}.
+     */
+    private final List<Path> runs = new ArrayList<>();
+
+    private int spilledLinks;
+
+    private Path spillDirectory;
+
+    /**
+     * Creates a table holding every link in memory.
+     */
+    public LinkTable() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxLinksInMemory The number of links held in memory before they are spilled to a temporary file.
+     */
+    public LinkTable(int maxLinksInMemory) {
+        this.maxLinksInMemory = maxLinksInMemory;
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Adds {@code weight} to the link from {@code source} to {@code target}, creating it if needed.
+     *
+     * @param source The source node identifier.
+     * @param target The target node identifier.
+     * @param weight The weight to add.
+     */
+    public void add(int source, int target, int weight) {
+        long key = key(source, target);
+        long hash = mix(key);
+        if (segments[(int) (hash >>> (64 - SEGMENT_BITS))].add(key, (int) hash, weight)
+                && linksInMemory.incrementAndGet() >= maxLinksInMemory) {
+            spill();
+        }
+    }
+
+    /**
+     * @return The weight of the link from {@code source} to {@code target}, {@code 0} if there is no such link.
+     */
+    public int weight(int source, int target) {
+        long key = key(source, target);
+        long hash = mix(key);
+        int weight = segments[(int) (hash >>> (64 - SEGMENT_BITS))].weight(key, (int) hash);
+        try {
+            for (Path run : runs()) {
+                weight += weight(run, key);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return weight;
+    }
+
+    /**
+     * @return The number of distinct links. Once links were spilled, a link found in several runs is counted once per
+     *         run, so the size is an upper bound.
+     */
+    public int size() {
+        int size;
+        synchronized (runs) {
+            size = spilledLinks;
+        }
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return The number of runs spilled to temporary files.
+     */
+    public int runCount() {
+        return runs().size();
+    }
+
+    /**
+     * Iterates over the links, in no particular order, each link once. Links added concurrently may or may not be
+     * visited. The consumer is called without holding any lock of the table, so it may add links to another table while
+     * that one is iterated over the other way around.
+     *
+     * @param consumer The link consumer.
+     */
+    public void forEach(LinkConsumer consumer) {
+        List<Path> spilled = runs();
+        if (spilled.isEmpty()) {
+            for (Segment segment : segments) {
+                Links links = segment.copy();
+                for (int i = 0; i < links.keys().length; i++) {
+                    consumer.accept((int) (links.keys()[i] >>> 32), (int) links.keys()[i], links.weights()[i]);
+                }
+            }
+            return;
+        }
+        // The runs and the segments, each sorted by key, are merged so that the weights of a link are summed up.
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>();
+        try {
+            for (Path run : spilled) {
+                new RunCursor(run).pushTo(cursors);
+            }
+            new MemoryCursor(sortedInMemory(false)).pushTo(cursors);
+            merge(cursors, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            cursors.forEach(Cursor::close);
+        }
+    }
+
+    /**
+     * Deletes the spilled runs. The table must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        synchronized (runs) {
+            try {
+                for (Path run : runs) {
+                    Files.deleteIfExists(run);
+                }
+                runs.clear();
+                if (spillDirectory != null) {
+                    Files.deleteIfExists(spillDirectory);
+                    spillDirectory = null;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static void merge(PriorityQueue<Cursor> cursors, LinkConsumer consumer) throws IOException {
+        while (!cursors.isEmpty()) {
+            Cursor cursor = cursors.poll();
+            long key = cursor.key;
+            int weight = cursor.weight;
+            cursor.pushTo(cursors);
+            while (!cursors.isEmpty() && cursors.peek().key == key) {
+                Cursor same = cursors.poll();
+                weight += same.weight;
+                same.pushTo(cursors);
+            }
+            consumer.accept((int) (key >>> 32), (int) key, weight);
+        }
+    }
+
+    private List<Path> runs() {
+        synchronized (runs) {
+            return List.copyOf(runs);
+        }
+    }
+
+    /**
+     * Empties the segments, one at a time, into a new run. Links added meanwhile to segments already emptied stay in
+     * memory.
+     */
+    private void spill() {
+        synchronized (runs) {
+            if (linksInMemory.get() < maxLinksInMemory) {
+                // Another thread spilled first.
+                return;
+            }
+            try {
+                if (spillDirectory == null) {
+                    spillDirectory = Files.createTempDirectory("project-graph-links");
+                }
+                Path run = Files.createTempFile(spillDirectory, "run", ".links");
+                SortedLinks drained = sortedInMemory(true);
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+                    for (int i = 0; i < drained.keys().length; i++) {
+                        out.writeLong(drained.keys()[i]);
+                        out.writeInt(drained.weights()[i]);
+                    }
+                }
+                spilledLinks += drained.keys().length;
+                runs.add(run);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Merges the links of the segments, each sorted on its own, into one array sorted by key.
+     *
+     * @param drain Whether to remove the links from the segments.
+     */
+    private SortedLinks sortedInMemory(boolean drain) throws IOException {
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>();
+        int size = 0;
+        for (Segment segment : segments) {
+            SortedLinks links;
+            synchronized (segment) {
+                links = segment.sorted();
+                if (drain) {
+                    segment.clear();
+                }
+            }
+            if (drain) {
+                linksInMemory.addAndGet(-links.keys().length);
+            }
+            size += links.keys().length;
+            new MemoryCursor(links).pushTo(cursors);
+        }
+        // Segments hold distinct keys, so the merge never meets a key twice.
+        long[] keys = new long[size];
+        int[] weights = new int[size];
+        for (int i = 0; !cursors.isEmpty(); i++) {
+            Cursor cursor = cursors.poll();
+            keys[i] = cursor.key;
+            weights[i] = cursor.weight;
+            cursor.pushTo(cursors);
+        }
+        return new SortedLinks(keys, weights);
+    }
+
+    /**
+     * Binary searches a run for a key.
+     */
+    private static int weight(Path run, long key) throws IOException {
+        try (FileChannel channel = FileChannel.open(run, StandardOpenOption.READ)) {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+            long low = 0;
+            long high = channel.size() / RECORD_BYTES - 1;
+            while (low <= high) {
+                long middle = (low + high) >>> 1;
+                record.clear();
+                channel.read(record, middle * RECORD_BYTES);
+                long middleKey = record.getLong(0);
+                if (middleKey < key) {
+                    low = middle + 1;
+                } else if (middleKey > key) {
+                    high = middle - 1;
+                } else {
+                    return record.getInt(Long.BYTES);
+                }
+            }
+            return 0;
+        }
+    }
+
+    private static long key(int source, int target) {
+        return ((long) source << 32) | (target & 0xFFFFFFFFL);
+    }
+
+    private static long mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * Links sorted by key.
+     */
+    private record SortedLinks(long[] keys, int[] weights) {
+    }
+
+    /**
+     * Links in no particular order.
+     */
+    private record Links(long[] keys, int[] weights) {
+    }
+
+    /**
+     * The current link of a source of links sorted by key.
+     */
+    private abstract static class Cursor implements Comparable<Cursor> {
+
+        long key;
+
+        int weight;
+
+        /**
+         * Moves to the next link.
+         *
+         * @return Whether there was one.
+         */
+        abstract boolean next() throws IOException;
+
+        void close() {
+        }
+
+        /**
+         * Queues this cursor at its next link, or closes it when it is exhausted.
+         */
+        void pushTo(PriorityQueue<Cursor> cursors) throws IOException {
+            if (next()) {
+                cursors.add(this);
+            } else {
+                close();
+            }
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return Long.compare(key, other.key);
+        }
+    }
+
+    private static final class RunCursor extends Cursor {
+
+        private final DataInputStream in;
+
+        RunCursor(Path run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 16));
+        }
+
+        @Override
+        boolean next() throws IOException {
+            try {
+                key = in.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            weight = in.readInt();
+            return true;
+        }
+
+        @Override
+        void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static final class MemoryCursor extends Cursor {
+
+        private final SortedLinks links;
+
+        private int index = -1;
+
+        MemoryCursor(SortedLinks links) {
+            this.links = links;
+        }
+
+        @Override
+        boolean next() {
+            if (++index >= links.keys().length) {
+                return false;
+            }
+            key = links.keys()[index];
+            weight = links.weights()[index];
+            return true;
+        }
+    }
+
+    private static final class Segment {
+
+        private static final long FREE = -1L;
+
+        private long[] keys = newKeys(16);
+
+        private int[] weights = new int[16];
+
+        private int size;
+
+        /**
+         * @return Whether the link is new to this segment.
+         */
+        synchronized boolean add(long key, int hash, int weight) {
+            int mask = keys.length - 1;
+            int slot = hash & mask;
+            while (keys[slot] != FREE) {
+                if (keys[slot] == key) {
+                    weights[slot] += weight;
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            weights[slot] = weight;
+            if (++size > keys.length * 3 / 4) {
+                rehash();
+            }
+            return true;
+        }
+
+        synchronized int weight(long key, int hash) {
+            int mask = keys.length - 1;
+            for (int slot = hash & mask; keys[slot] != FREE; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return weights[slot];
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * @return A copy of the links, in slot order.
+         */
+        synchronized Links copy() {
+            long[] copiedKeys = new long[size];
+            int[] copiedWeights = new int[size];
+            int count = 0;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != FREE) {
+                    copiedKeys[count] = keys[slot];
+                    copiedWeights[count++] = weights[slot];
+                }
+            }
+            return new Links(copiedKeys, copiedWeights);
+        }
+
+        SortedLinks sorted() {
+            long[] sortedKeys = new long[size];
+            int count = 0;
+            for (long key : keys) {
+                if (key != FREE) {
+                    sortedKeys[count++] = key;
+                }
+            }
+            Arrays.sort(sortedKeys);
+            int[] sortedWeights = new int[size];
+            for (int i = 0; i < size; i++) {
+                sortedWeights[i] = weight(sortedKeys[i], (int) mix(sortedKeys[i]));
+            }
+            return new SortedLinks(sortedKeys, sortedWeights);
+        }
+
+        /**
+         * Removes every link. The hash table keeps its capacity, which the memory budget bounds.
+         */
+        void clear() {
+            Arrays.fill(keys, FREE);
+            size = 0;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            int[] oldWeights = weights;
+            keys = newKeys(oldKeys.length * 2);
+            weights = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) {
+                    int slot = (int) mix(oldKeys[i]) & mask;
+                    while (keys[slot] != FREE) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    weights[slot] = oldWeights[i];
+                }
+            }
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] newKeys = new long[capacity];
+            Arrays.fill(newKeys, FREE);
+            return newKeys;
+        }
+    }
+}
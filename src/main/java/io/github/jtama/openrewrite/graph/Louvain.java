@@ -0,0 +1,307 @@
+package io.github.jtama.openrewrite.graph;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Weighted Louvain community detection, on the graph regardless of link directions.
+ * <p>
+ * Each level moves nodes, in node order, to the neighbor community with the best modularity gain until no node moves,
+ * then merges every community into a single node of the next level. Nodes of different connected components never
+ * share a community and moving a node only changes the gains of its own component, so components are processed in
+ * parallel, against the total weight of the whole graph: the result is the same as the one of a sequential run.
+ */
+public final class Louvain {
+
+    private static final int MAX_PASSES = 32;
+
+    private static final double MIN_GAIN = 1e-10;
+
+    private Louvain() {
+    }
+
+    /**
+     * @return The community of each node, numbered in the order of their first node.
+     */
+    public static int[] communities(DependencyGraph graph) {
+        Adjacency adjacency = Adjacency.undirected(graph);
+        int nodeCount = adjacency.nodeCount();
+        // Every link is in the rows of both of its nodes.
+        double twiceTotalWeight = Arrays.stream(adjacency.weights()).asLongStream().sum();
+        int[] components = new int[nodeCount];
+        int componentCount = components(adjacency, components);
+        // The nodes of each component, in node order.
+        int[] componentOffsets = new int[componentCount + 1];
+        for (int component : components) {
+            componentOffsets[component + 1]++;
+        }
+        for (int component = 0; component < componentCount; component++) {
+            componentOffsets[component + 1] += componentOffsets[component];
+        }
+        int[] componentNodes = new int[nodeCount];
+        int[] localIndexes = new int[nodeCount];
+        int[] next = Arrays.copyOf(componentOffsets, componentCount);
+        for (int node = 0; node < nodeCount; node++) {
+            localIndexes[node] = next[components[node]] - componentOffsets[components[node]];
+            componentNodes[next[components[node]]++] = node;
+        }
+
+        int[] communities = new int[nodeCount];
+        // Each component writes the communities of its own nodes, local to the component.
+        IntStream.range(0, componentCount).parallel().forEach(component -> {
+            int[] nodes = Arrays.copyOfRange(componentNodes, componentOffsets[component], componentOffsets[component + 1]);
+            int[] local = detect(level(adjacency, nodes, localIndexes), twiceTotalWeight);
+            for (int i = 0; i < nodes.length; i++) {
+                communities[nodes[i]] = local[i];
+            }
+        });
+        // Makes community numbers global, in the order of their first node.
+        int[] renumbered = new int[nodeCount];
+        Arrays.fill(renumbered, -1);
+        int communityCount = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            int key = componentOffsets[components[node]] + communities[node];
+            if (renumbered[key] == -1) {
+                renumbered[key] = communityCount++;
+            }
+            communities[node] = renumbered[key];
+        }
+        return communities;
+    }
+
+    /**
+     * @return The modularity of a partition of the graph, regardless of link directions.
+     */
+    public static double modularity(DependencyGraph graph, int[] communities) {
+        Adjacency adjacency = Adjacency.undirected(graph);
+        double[] inner = new double[adjacency.nodeCount()];
+        double[] totals = new double[adjacency.nodeCount()];
+        double twiceTotalWeight = 0;
+        for (int node = 0; node < adjacency.nodeCount(); node++) {
+            for (int n = adjacency.offsets()[node]; n < adjacency.offsets()[node + 1]; n++) {
+                int weight = adjacency.weights()[n];
+                totals[communities[node]] += weight;
+                twiceTotalWeight += weight;
+                if (communities[adjacency.neighbors()[n]] == communities[node]) {
+                    inner[communities[node]] += weight;
+                }
+            }
+        }
+        double modularity = 0;
+        for (int community = 0; community < inner.length; community++) {
+            modularity += inner[community] / twiceTotalWeight
+                    - (totals[community] / twiceTotalWeight) * (totals[community] / twiceTotalWeight);
+        }
+        return modularity;
+    }
+
+    /**
+     * Labels the connected components in node order.
+     *
+     * @return The number of components.
+     */
+    private static int components(Adjacency adjacency, int[] components) {
+        Arrays.fill(components, -1);
+        int[] stack = new int[components.length];
+        int componentCount = 0;
+        for (int root = 0; root < components.length; root++) {
+            if (components[root] != -1) {
+                continue;
+            }
+            components[root] = componentCount;
+            int size = 0;
+            stack[size++] = root;
+            while (size > 0) {
+                int node = stack[--size];
+                for (int n = adjacency.offsets()[node]; n < adjacency.offsets()[node + 1]; n++) {
+                    int neighbor = adjacency.neighbors()[n];
+                    if (components[neighbor] == -1) {
+                        components[neighbor] = componentCount;
+                        stack[size++] = neighbor;
+                    }
+                }
+            }
+            componentCount++;
+        }
+        return componentCount;
+    }
+
+    /**
+     * @return The first level of a component, whose nodes are numbered after their index in {@code nodes}.
+     */
+    private static Level level(Adjacency adjacency, int[] nodes, int[] localIndexes) {
+        int[] offsets = new int[nodes.length + 1];
+        for (int i = 0; i < nodes.length; i++) {
+            offsets[i + 1] = offsets[i] + adjacency.degree(nodes[i]);
+        }
+        int[] neighbors = new int[offsets[nodes.length]];
+        double[] weights = new double[offsets[nodes.length]];
+        for (int i = 0; i < nodes.length; i++) {
+            int from = adjacency.offsets()[nodes[i]];
+            for (int n = 0; n < adjacency.degree(nodes[i]); n++) {
+                neighbors[offsets[i] + n] = localIndexes[adjacency.neighbors()[from + n]];
+                weights[offsets[i] + n] = adjacency.weights()[from + n];
+            }
+        }
+        return new Level(offsets, neighbors, weights);
+    }
+
+    /**
+     * @return The community of each node of the first level.
+     */
+    private static int[] detect(Level level, double twiceTotalWeight) {
+        int[] membership = new int[level.nodeCount()];
+        Arrays.setAll(membership, i -> i);
+        while (true) {
+            int[] communities = move(level, twiceTotalWeight);
+            int communityCount = renumber(communities);
+            for (int i = 0; i < membership.length; i++) {
+                membership[i] = communities[membership[i]];
+            }
+            if (communityCount == level.nodeCount()) {
+                return membership;
+            }
+            level = aggregate(level, communities, communityCount);
+        }
+    }
+
+    /**
+     * The local moving phase of a level.
+     *
+     * @return The community of each node of the level.
+     */
+    private static int[] move(Level level, double twiceTotalWeight) {
+        int nodeCount = level.nodeCount();
+        int[] communities = new int[nodeCount];
+        Arrays.setAll(communities, i -> i);
+        double[] degrees = new double[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            for (int n = level.offsets[node]; n < level.offsets[node + 1]; n++) {
+                degrees[node] += level.weights[n];
+            }
+        }
+        double[] totals = degrees.clone();
+        double[] weightTo = new double[nodeCount];
+        boolean[] seen = new boolean[nodeCount];
+        int[] touched = new int[nodeCount];
+        boolean moved = true;
+        for (int pass = 0; moved && pass < MAX_PASSES; pass++) {
+            moved = false;
+            for (int node = 0; node < nodeCount; node++) {
+                int current = communities[node];
+                int touchedCount = 0;
+                seen[current] = true;
+                touched[touchedCount++] = current;
+                for (int n = level.offsets[node]; n < level.offsets[node + 1]; n++) {
+                    int neighbor = level.neighbors[n];
+                    if (neighbor == node) {
+                        continue;
+                    }
+                    int community = communities[neighbor];
+                    if (!seen[community]) {
+                        seen[community] = true;
+                        touched[touchedCount++] = community;
+                    }
+                    weightTo[community] += level.weights[n];
+                }
+                totals[current] -= degrees[node];
+                int best = current;
+                double bestGain = weightTo[current] - totals[current] * degrees[node] / twiceTotalWeight;
+                for (int t = 1; t < touchedCount; t++) {
+                    int community = touched[t];
+                    double gain = weightTo[community] - totals[community] * degrees[node] / twiceTotalWeight;
+                    if (gain - bestGain > MIN_GAIN) {
+                        best = community;
+                        bestGain = gain;
+                    }
+                }
+                totals[best] += degrees[node];
+                if (best != current) {
+                    communities[node] = best;
+                    moved = true;
+                }
+                for (int t = 0; t < touchedCount; t++) {
+                    seen[touched[t]] = false;
+                    weightTo[touched[t]] = 0;
+                }
+            }
+        }
+        return communities;
+    }
+
+    /**
+     * Numbers communities from {@code 0}, in the order of their first node.
+     *
+     * @return The number of communities.
+     */
+    private static int renumber(int[] communities) {
+        int[] renumbered = new int[communities.length];
+        Arrays.fill(renumbered, -1);
+        int communityCount = 0;
+        for (int node = 0; node < communities.length; node++) {
+            if (renumbered[communities[node]] == -1) {
+                renumbered[communities[node]] = communityCount++;
+            }
+            communities[node] = renumbered[communities[node]];
+        }
+        return communityCount;
+    }
+
+    /**
+     * Merges each community into a single node. Links inside a community become a self link, so that degrees are kept.
+     */
+    private static Level aggregate(Level level, int[] communities, int communityCount) {
+        int[] memberOffsets = new int[communityCount + 1];
+        for (int community : communities) {
+            memberOffsets[community + 1]++;
+        }
+        for (int community = 0; community < communityCount; community++) {
+            memberOffsets[community + 1] += memberOffsets[community];
+        }
+        int[] members = new int[communities.length];
+        int[] next = Arrays.copyOf(memberOffsets, communityCount);
+        for (int node = 0; node < communities.length; node++) {
+            members[next[communities[node]]++] = node;
+        }
+
+        int[] offsets = new int[communityCount + 1];
+        int[] neighbors = new int[level.neighbors.length];
+        double[] weights = new double[level.neighbors.length];
+        double[] weightTo = new double[communityCount];
+        boolean[] seen = new boolean[communityCount];
+        int[] touched = new int[communityCount];
+        int size = 0;
+        for (int community = 0; community < communityCount; community++) {
+            int touchedCount = 0;
+            for (int m = memberOffsets[community]; m < memberOffsets[community + 1]; m++) {
+                int node = members[m];
+                for (int n = level.offsets[node]; n < level.offsets[node + 1]; n++) {
+                    int neighbor = communities[level.neighbors[n]];
+                    if (!seen[neighbor]) {
+                        seen[neighbor] = true;
+                        touched[touchedCount++] = neighbor;
+                    }
+                    weightTo[neighbor] += level.weights[n];
+                }
+            }
+            for (int t = 0; t < touchedCount; t++) {
+                neighbors[size] = touched[t];
+                weights[size++] = weightTo[touched[t]];
+                seen[touched[t]] = false;
+                weightTo[touched[t]] = 0;
+            }
+            offsets[community + 1] = size;
+        }
+        return new Level(offsets, Arrays.copyOf(neighbors, size), Arrays.copyOf(weights, size));
+    }
+
+    /**
+     * A weighted undirected graph, where each link appears in the rows of both of its nodes.
+     */
+    private record Level(int[] offsets, int[] neighbors, double[] weights) {
+
+        int nodeCount() {
+            return offsets.length - 1;
+        }
+    }
+}
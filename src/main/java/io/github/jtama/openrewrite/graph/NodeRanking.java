@@ -0,0 +1,232 @@
+package io.github.jtama.openrewrite.graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The strategies used to rank nodes when the graph is pruned to its most important nodes.
+ */
+public enum NodeRanking {
+
+    /**
+     * The largest of the incoming and outgoing connections of a node.
+     */
+    DEGREE {
+        @Override
+        public double[] scores(DependencyGraph graph) {
+            double[] scores = new double[graph.nodeCount()];
+            for (int node = 0; node < scores.length; node++) {
+                scores[node] = Math.max(graph.incomingConnections(node), graph.outgoingConnections(node));
+            }
+            return scores;
+        }
+    },
+    /**
+     * The sum of the weights of the incoming and outgoing links of a node.
+     */
+    WEIGHTED_DEGREE {
+        @Override
+        public double[] scores(DependencyGraph graph) {
+            double[] scores = new double[graph.nodeCount()];
+            graph.forEachLink((source, target, weight) -> {
+                scores[source] += weight;
+                scores[target] += weight;
+            });
+            return scores;
+        }
+    },
+    /**
+     * The weighted PageRank of a node: classes used by many used classes rank first.
+     */
+    PAGE_RANK {
+        private static final double DAMPING = 0.85;
+
+        private static final int MAX_ITERATIONS = 50;
+
+        private static final double TOLERANCE = 1e-9;
+
+        @Override
+        public double[] scores(DependencyGraph graph) {
+            int nodeCount = graph.nodeCount();
+            long[] outgoingWeights = new long[nodeCount];
+            graph.forEachLink((source, target, weight) -> outgoingWeights[source] += weight);
+            double[] ranks = new double[nodeCount];
+            Arrays.fill(ranks, 1.0 / nodeCount);
+            double[] next = new double[nodeCount];
+            for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+                // The rank of nodes without outgoing links is spread over every node.
+                double dangling = 0;
+                for (int node = 0; node < nodeCount; node++) {
+                    if (outgoingWeights[node] == 0) {
+                        dangling += ranks[node];
+                    }
+                }
+                Arrays.fill(next, ((1 - DAMPING) + DAMPING * dangling) / nodeCount);
+                for (int node = 0; node < nodeCount; node++) {
+                    if (outgoingWeights[node] != 0) {
+                        double share = DAMPING * ranks[node] / outgoingWeights[node];
+                        for (int link = graph.firstLink(node); link < graph.lastLink(node); link++) {
+                            next[graph.target(link)] += share * graph.weight(link);
+                        }
+                    }
+                }
+                double delta = 0;
+                for (int node = 0; node < nodeCount; node++) {
+                    delta += Math.abs(next[node] - ranks[node]);
+                }
+                double[] swap = ranks;
+                ranks = next;
+                next = swap;
+                if (delta < TOLERANCE) {
+                    break;
+                }
+            }
+            return ranks;
+        }
+    },
+    /**
+     * The core number of a node, regardless of link directions: the largest {@code k} such that the node belongs to a
+     * subgraph where every node has at least {@code k} neighbors. Nodes of the same core are ranked by degree.
+     */
+    K_CORE {
+        @Override
+        public double[] scores(DependencyGraph graph) {
+            Adjacency adjacency = Adjacency.undirected(graph);
+            int nodeCount = adjacency.nodeCount();
+            int[] degrees = new int[nodeCount];
+            int maxDegree = 0;
+            for (int node = 0; node < nodeCount; node++) {
+                degrees[node] = adjacency.degree(node);
+                maxDegree = Math.max(maxDegree, degrees[node]);
+            }
+            int[] cores = coreNumbers(adjacency, degrees.clone(), maxDegree);
+            double[] scores = new double[nodeCount];
+            for (int node = 0; node < nodeCount; node++) {
+                scores[node] = cores[node] + (double) degrees[node] / (maxDegree + 1);
+            }
+            return scores;
+        }
+
+        /**
+         * Batagelj and Zaversnik bucket algorithm: nodes are peeled by increasing degree in linear time.
+         */
+        private static int[] coreNumbers(Adjacency adjacency, int[] degrees, int maxDegree) {
+            int nodeCount = adjacency.nodeCount();
+            int[] bucketStarts = new int[maxDegree + 1];
+            for (int degree : degrees) {
+                bucketStarts[degree]++;
+            }
+            for (int degree = 0, start = 0; degree <= maxDegree; degree++) {
+                int size = bucketStarts[degree];
+                bucketStarts[degree] = start;
+                start += size;
+            }
+            int[] sorted = new int[nodeCount];
+            int[] positions = new int[nodeCount];
+            for (int node = 0; node < nodeCount; node++) {
+                positions[node] = bucketStarts[degrees[node]]++;
+                sorted[positions[node]] = node;
+            }
+            for (int degree = maxDegree; degree > 0; degree--) {
+                bucketStarts[degree] = bucketStarts[degree - 1];
+            }
+            bucketStarts[0] = 0;
+            for (int i = 0; i < nodeCount; i++) {
+                int node = sorted[i];
+                for (int n = adjacency.offsets()[node]; n < adjacency.offsets()[node + 1]; n++) {
+                    int neighbor = adjacency.neighbors()[n];
+                    if (degrees[neighbor] > degrees[node]) {
+                        // Moves the neighbor to the start of its bucket, then shrinks the bucket by one.
+                        int neighborDegree = degrees[neighbor];
+                        int first = sorted[bucketStarts[neighborDegree]];
+                        if (first != neighbor) {
+                            sorted[positions[neighbor]] = first;
+                            positions[first] = positions[neighbor];
+                            sorted[bucketStarts[neighborDegree]] = neighbor;
+                            positions[neighbor] = bucketStarts[neighborDegree];
+                        }
+                        bucketStarts[neighborDegree]++;
+                        degrees[neighbor]--;
+                    }
+                }
+            }
+            return degrees;
+        }
+    };
+
+    /**
+     * @return The score of every node, the higher the more important.
+     */
+    public abstract double[] scores(DependencyGraph graph);
+
+    /**
+     * Selects the {@code k} best ranked nodes with a bounded heap, without sorting every node. Nodes with the same
+     * score are selected in node order.
+     *
+     * @return The selected nodes.
+     */
+    public BitSet top(DependencyGraph graph, int k) {
+        double[] scores = scores(graph);
+        BitSet selected = new BitSet(scores.length);
+        if (k >= scores.length) {
+            selected.set(0, scores.length);
+            return selected;
+        }
+        if (k <= 0) {
+            return selected;
+        }
+        // A min-heap whose root is the worst selected node.
+        int[] heap = new int[k];
+        int size = 0;
+        for (int node = 0; node < scores.length; node++) {
+            if (size < k) {
+                heap[size] = node;
+                siftUp(heap, size++, scores);
+            } else if (isWorse(heap[0], node, scores)) {
+                heap[0] = node;
+                siftDown(heap, size, scores);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            selected.set(heap[i]);
+        }
+        return selected;
+    }
+
+    private static boolean isWorse(int node, int other, double[] scores) {
+        return scores[node] < scores[other] || (scores[node] == scores[other] && node > other);
+    }
+
+    private static void siftUp(int[] heap, int index, double[] scores) {
+        int node = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isWorse(node, heap[parent], scores)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = node;
+    }
+
+    private static void siftDown(int[] heap, int size, double[] scores) {
+        int node = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && isWorse(heap[child + 1], heap[child], scores)) {
+                child++;
+            }
+            if (!isWorse(heap[child], node, scores)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = node;
+    }
+}
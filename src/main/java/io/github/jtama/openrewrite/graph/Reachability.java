@@ -0,0 +1,102 @@
+package io.github.jtama.openrewrite.graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers transitive dependency queries on a graph: the classes a set of classes depends on, directly or not, and the
+ * classes that depend on them.
+ * <p>
+ * Both link directions are held as compressed sparse rows, and each query is a breadth-first search whose frontier and
+ * visited nodes are bitsets, so a query runs in linear time in the size of the part of the graph it reaches. Answers
+ * are cached by direction and seed nodes, up to a bound, as the same queries tend to be asked again. Use
+ * {@link DependencyGraph#reachability()} to share one engine, and its cache, between every user of a graph.
+ */
+public final class Reachability {
+
+    public enum Direction {
+        /**
+         * Follows the links, towards the classes the seeds depend on.
+         */
+        DEPENDENCIES,
+        /**
+         * Follows the links backwards, towards the classes depending on the seeds, that is the impact of changing them.
+         */
+        DEPENDENTS
+    }
+
+    private static final int MAX_CACHED_QUERIES = 64;
+
+    private record Query(Direction direction, BitSet seeds) {
+    }
+
+    private final Adjacency outgoing;
+
+    private final Adjacency incoming;
+
+    private final Map<Query, int[]> answers = new ConcurrentHashMap<>();
+
+    public Reachability(DependencyGraph graph) {
+        this.outgoing = Adjacency.outgoing(graph);
+        this.incoming = Adjacency.incoming(graph);
+    }
+
+    /**
+     * @param direction The direction of the links to follow.
+     * @param seeds The nodes the search starts from.
+     * @return The number of links from the closest seed to each node, {@code 0} for the seeds themselves, or {@code -1}
+     *         for the nodes that cannot be reached. The array is shared by repeated queries and must not be modified.
+     */
+    public int[] distances(Direction direction, BitSet seeds) {
+        Query query = new Query(direction, (BitSet) seeds.clone());
+        int[] distances = answers.get(query);
+        if (distances == null) {
+            distances = search(direction == Direction.DEPENDENCIES ? outgoing : incoming, query.seeds());
+            if (answers.size() < MAX_CACHED_QUERIES) {
+                answers.put(query, distances);
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * @return The nodes reachable from the seeds, seeds included.
+     */
+    public BitSet reached(Direction direction, BitSet seeds) {
+        int[] distances = distances(direction, seeds);
+        BitSet reached = new BitSet(distances.length);
+        for (int node = 0; node < distances.length; node++) {
+            if (distances[node] >= 0) {
+                reached.set(node);
+            }
+        }
+        return reached;
+    }
+
+    private static int[] search(Adjacency adjacency, BitSet seeds) {
+        int[] distances = new int[adjacency.nodeCount()];
+        Arrays.fill(distances, -1);
+        BitSet visited = (BitSet) seeds.clone();
+        BitSet frontier = (BitSet) seeds.clone();
+        BitSet next = new BitSet(adjacency.nodeCount());
+        for (int distance = 0; !frontier.isEmpty(); distance++) {
+            for (int node = frontier.nextSetBit(0); node >= 0; node = frontier.nextSetBit(node + 1)) {
+                distances[node] = distance;
+                for (int neighbor = adjacency.offsets()[node]; neighbor < adjacency.offsets()[node + 1]; neighbor++) {
+                    int target = adjacency.neighbors()[neighbor];
+                    if (!visited.get(target)) {
+                        visited.set(target);
+                        next.set(target);
+                    }
+                }
+            }
+            BitSet reachedNow = frontier;
+            frontier = next;
+            next = reachedNow;
+            next.clear();
+        }
+        return distances;
+    }
+}
@@ -0,0 +1,149 @@
+package io.github.jtama.openrewrite.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Strongly connected components of a graph, following link directions, found with Tarjan's algorithm.
+ * <p>
+ * The depth-first search keeps its own stack of nodes and of the next link to follow from each of them, instead of
+ * recursing, so that long dependency chains cannot overflow the thread stack. It runs in linear time, with a few
+ * {@code int} arrays of the size of the graph besides the graph itself.
+ */
+public final class StronglyConnectedComponents {
+
+    /**
+     * A dependency cycle: a strongly connected component of more than one node.
+     *
+     * @param number The number of the cycle, in the order of their first node.
+     * @param members The names of its nodes, in node order.
+     * @param links The number of links between its nodes.
+     * @param weight The sum of the weights of these links.
+     */
+    public record Cycle(int number, List<String> members, int links, long weight) {
+    }
+
+    private StronglyConnectedComponents() {
+    }
+
+    /**
+     * @return The component of each node. Components are numbered in reverse topological order: a link either stays
+     *         in a component or goes to a component with a lower number.
+     */
+    public static int[] components(DependencyGraph graph) {
+        int nodeCount = graph.nodeCount();
+        int[] components = new int[nodeCount];
+        Arrays.fill(components, -1);
+        // The depth-first order of each visited node, and the lowest order reachable from it.
+        int[] order = new int[nodeCount];
+        Arrays.fill(order, -1);
+        int[] lowest = new int[nodeCount];
+        // The visited nodes not yet assigned to a component.
+        int[] stack = new int[nodeCount];
+        int stackSize = 0;
+        // The path of the search, and the next link to follow from each node of it.
+        int[] path = new int[nodeCount];
+        int[] nextLink = new int[nodeCount];
+        int depth = 0;
+        int visited = 0;
+        int componentCount = 0;
+        for (int root = 0; root < nodeCount; root++) {
+            if (order[root] >= 0) {
+                continue;
+            }
+            order[root] = lowest[root] = visited++;
+            stack[stackSize++] = root;
+            path[depth++] = root;
+            nextLink[root] = graph.firstLink(root);
+            while (depth > 0) {
+                int node = path[depth - 1];
+                if (nextLink[node] < graph.lastLink(node)) {
+                    int target = graph.target(nextLink[node]++);
+                    if (order[target] < 0) {
+                        order[target] = lowest[target] = visited++;
+                        stack[stackSize++] = target;
+                        path[depth++] = target;
+                        nextLink[target] = graph.firstLink(target);
+                    } else if (components[target] < 0) {
+                        lowest[node] = Math.min(lowest[node], order[target]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (lowest[node] == order[node]) {
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        components[member] = componentCount;
+                    } while (member != node);
+                    componentCount++;
+                }
+                if (depth > 0) {
+                    int parent = path[depth - 1];
+                    lowest[parent] = Math.min(lowest[parent], lowest[node]);
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * @return The cycle of each node, numbered in the order of their first node, or {@code -1} for nodes that are not
+     *         part of a cycle.
+     */
+    public static int[] cycles(DependencyGraph graph) {
+        int[] components = components(graph);
+        int[] sizes = new int[graph.nodeCount()];
+        for (int component : components) {
+            sizes[component]++;
+        }
+        int[] renumbered = new int[graph.nodeCount()];
+        Arrays.fill(renumbered, -1);
+        int cycleCount = 0;
+        int[] cycles = new int[graph.nodeCount()];
+        for (int node = 0; node < cycles.length; node++) {
+            int component = components[node];
+            if (sizes[component] < 2) {
+                cycles[node] = -1;
+                continue;
+            }
+            if (renumbered[component] < 0) {
+                renumbered[component] = cycleCount++;
+            }
+            cycles[node] = renumbered[component];
+        }
+        return cycles;
+    }
+
+    /**
+     * @param graph The graph.
+     * @param cycles The cycle of each node, as returned by {@link #cycles(DependencyGraph)}.
+     * @return The cycles, by number.
+     */
+    public static List<Cycle> describe(DependencyGraph graph, int[] cycles) {
+        int cycleCount = Arrays.stream(cycles).max().orElse(-1) + 1;
+        List<List<String>> members = new ArrayList<>(cycleCount);
+        for (int cycle = 0; cycle < cycleCount; cycle++) {
+            members.add(new ArrayList<>());
+        }
+        int[] links = new int[cycleCount];
+        long[] weights = new long[cycleCount];
+        for (int node = 0; node < cycles.length; node++) {
+            if (cycles[node] >= 0) {
+                members.get(cycles[node]).add(graph.className(node));
+            }
+        }
+        graph.forEachLink((source, target, weight) -> {
+            if (cycles[source] >= 0 && cycles[source] == cycles[target]) {
+                links[cycles[source]]++;
+                weights[cycles[source]] += weight;
+            }
+        });
+        List<Cycle> described = new ArrayList<>(cycleCount);
+        for (int cycle = 0; cycle < cycleCount; cycle++) {
+            described.add(new Cycle(cycle, members.get(cycle), links[cycle], weights[cycle]));
+        }
+        return described;
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.jtama.openrewrite.graph;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns strings, such as class, package or artifact names, into dense {@code int} identifiers.
+ * <p>
+ * Identifiers are allocated from {@code 0} in interning order. Lookups of already interned strings are lock-free, so
+ * the table can be shared by concurrent scanners.
+ */
+public final class SymbolTable {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private volatile String[] symbols = new String[256];
+
+    private int size;
+
+    /**
+     * Returns the identifier of {@code symbol}, allocating a new one if the symbol was never seen.
+     *
+     * @param symbol The string to intern.
+     * @return The symbol identifier.
+     */
+    public int intern(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(symbol);
+            if (id != null) {
+                return id;
+            }
+            if (size == symbols.length) {
+                symbols = Arrays.copyOf(symbols, size * 2);
+            }
+            symbols[size] = symbol;
+            ids.put(symbol, size);
+            return size++;
+        }
+    }
+
+    /**
+     * @param symbol The string to look up.
+     * @return The symbol identifier, or {@code -1} if it was never interned.
+     */
+    public int find(String symbol) {
+        Integer id = ids.get(symbol);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id A symbol identifier, or {@code -1}.
+     * @return The interned string, or {@code null} for {@code -1}.
+     */
+    public String symbol(int id) {
+        return id < 0 ? null : symbols[id];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
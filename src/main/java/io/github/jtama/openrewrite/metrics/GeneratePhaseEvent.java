@@ -0,0 +1,19 @@
+package io.github.jtama.openrewrite.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A phase of the graph generation, recorded when a JFR recording is running.
+ */
+@Name("io.github.jtama.openrewrite.GeneratePhase")
+@Label("Generate Phase")
+@Category({ "OpenRewrite", "Project Aerial View" })
+@Description("A phase of the project graph generation")
+class GeneratePhaseEvent extends jdk.jfr.Event {
+
+    @Label("Phase")
+    String phase;
+}
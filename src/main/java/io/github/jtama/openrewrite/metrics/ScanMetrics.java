@@ -0,0 +1,243 @@
+package io.github.jtama.openrewrite.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.github.jtama.openrewrite.model.ScanMetricsReport;
+
+/**
+ * Counters and timers of a recipe run: scanner callbacks, caches, graph growth and {@code generate} phases.
+ * <p>
+ * Every recording method starts by checking whether metrics are enabled, so that a disabled instance only costs a
+ * predictable branch. Counters are {@link LongAdder}s, as scanners may run concurrently.
+ */
+public final class ScanMetrics {
+
+    /**
+     * The timed scanner callbacks. Times include the nested callbacks.
+     */
+    public enum Callback {
+        PRE_VISIT("preVisit"),
+        CLASS_DECLARATION("visitClassDeclaration"),
+        MEMBER_REFERENCE("visitMemberReference"),
+        FIELD_ACCESS("visitFieldAccess"),
+        METHOD_INVOCATION("visitMethodInvocation"),
+        NEW_CLASS("visitNewClass"),
+        ADD_LINK("addLink"),
+        PACKAGE_EXCLUSION("isPackageExcluded");
+
+        private final String displayName;
+
+        Callback(String displayName) {
+            this.displayName = displayName;
+        }
+    }
+
+    /**
+     * The counted cache lookups.
+     */
+    public enum Counter {
+        SNAPSHOT_HIT("incremental snapshot hit"),
+        SNAPSHOT_MISS("incremental snapshot miss"),
+        NODE_HIT("node lookup hit"),
+        NODE_MISS("node lookup miss");
+
+        private final String displayName;
+
+        Counter(String displayName) {
+            this.displayName = displayName;
+        }
+    }
+
+    /**
+     * The timed phases of {@code generate}.
+     */
+    public enum Phase {
+        QUERY("query"),
+        FILTER("filter"),
+        COMMUNITIES("communities"),
+        LAYOUT("layout"),
+        AGGREGATE("aggregate"),
+        DIFF("diff"),
+        REPORT("report"),
+        RENDER("serialize and write");
+
+        private final String displayName;
+
+        Phase(String displayName) {
+            this.displayName = displayName;
+        }
+    }
+
+    /**
+     * Records nothing.
+     */
+    public static final ScanMetrics DISABLED = new ScanMetrics(false);
+
+    private final boolean enabled;
+
+    private final LongAdder[] callbackCounts = adders(Callback.values().length);
+
+    private final LongAdder[] callbackNanos = adders(Callback.values().length);
+
+    private final LongAdder[] counters = adders(Counter.values().length);
+
+    private final LongAdder[] phaseCounts = adders(Phase.values().length);
+
+    private final LongAdder[] phaseNanos = adders(Phase.values().length);
+
+    private final AtomicInteger sourceFiles = new AtomicInteger();
+
+    /**
+     * The node and link counts of the graph, each time the number of scanned source files reaches a power of two.
+     */
+    private final Map<Integer, int[]> growth = new ConcurrentSkipListMap<>();
+
+    private ScanMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return New metrics, recording everything.
+     */
+    public static ScanMetrics enabled() {
+        return new ScanMetrics(true);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return The start time of a callback, to be given to {@link #stop(Callback, long)}.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records a callback invocation that started at {@code start}.
+     */
+    public void stop(Callback callback, long start) {
+        if (enabled) {
+            callbackNanos[callback.ordinal()].add(System.nanoTime() - start);
+            callbackCounts[callback.ordinal()].increment();
+        }
+    }
+
+    public void count(Counter counter) {
+        if (enabled) {
+            counters[counter.ordinal()].increment();
+        }
+    }
+
+    /**
+     * @return The number of recorded invocations of a callback.
+     */
+    public long invocations(Callback callback) {
+        return callbackCounts[callback.ordinal()].sum();
+    }
+
+    /**
+     * @return The number of recorded lookups of a counter.
+     */
+    public long total(Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+
+    /**
+     * @return The number of recorded scanned source files.
+     */
+    public int sourceFiles() {
+        return sourceFiles.get();
+    }
+
+    /**
+     * Records that source files were scanned into a graph that now has {@code nodes} nodes and {@code links} links.
+     */
+    public void scanned(int count, int nodes, int links) {
+        if (enabled) {
+            int after = sourceFiles.addAndGet(count);
+            if (Integer.highestOneBit(after) != Integer.highestOneBit(after - count)) {
+                growth.put(after, new int[] { nodes, links });
+            }
+        }
+    }
+
+    /**
+     * Starts timing a phase of {@code generate}, which is also reported as a {@link GeneratePhaseEvent}.
+     *
+     * @return The phase timer, to close once the phase is done.
+     */
+    public PhaseTimer phase(Phase phase) {
+        return new PhaseTimer(phase);
+    }
+
+    /**
+     * @return The data table rows of everything recorded so far, empty if metrics are disabled.
+     */
+    public List<ScanMetricsReport.Row> rows() {
+        List<ScanMetricsReport.Row> rows = new ArrayList<>();
+        if (!enabled) {
+            return rows;
+        }
+        for (Callback callback : Callback.values()) {
+            rows.add(new ScanMetricsReport.Row("callback", callback.displayName, callbackCounts[callback.ordinal()].sum(),
+                    callbackNanos[callback.ordinal()].sum() / 1_000));
+        }
+        for (Counter counter : Counter.values()) {
+            rows.add(new ScanMetricsReport.Row("cache", counter.displayName, counters[counter.ordinal()].sum(), 0));
+        }
+        growth.forEach((files, sizes) -> {
+            rows.add(new ScanMetricsReport.Row("growth", "nodes after %d source files".formatted(files), sizes[0], 0));
+            rows.add(new ScanMetricsReport.Row("growth", "links after %d source files".formatted(files), sizes[1], 0));
+        });
+        for (Phase phase : Phase.values()) {
+            rows.add(new ScanMetricsReport.Row("generate", phase.displayName, phaseCounts[phase.ordinal()].sum(),
+                    phaseNanos[phase.ordinal()].sum() / 1_000));
+        }
+        return rows;
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Times a phase of {@code generate}.
+     */
+    public final class PhaseTimer implements AutoCloseable {
+
+        private final Phase phase;
+
+        private final long start = System.nanoTime();
+
+        private final GeneratePhaseEvent event = new GeneratePhaseEvent();
+
+        private PhaseTimer(Phase phase) {
+            this.phase = phase;
+            event.begin();
+        }
+
+        @Override
+        public void close() {
+            if (enabled) {
+                phaseNanos[phase.ordinal()].add(System.nanoTime() - start);
+                phaseCounts[phase.ordinal()].increment();
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = phase.displayName;
+                event.commit();
+            }
+        }
+    }
+}
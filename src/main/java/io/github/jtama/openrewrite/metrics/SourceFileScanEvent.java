@@ -0,0 +1,30 @@
+package io.github.jtama.openrewrite.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The scan of a single source file. There is one event per source file, so the event has to be enabled explicitly in
+ * the recording settings.
+ */
+@Name("io.github.jtama.openrewrite.SourceFileScan")
+@Label("Source File Scan")
+@Category({ "OpenRewrite", "Project Aerial View" })
+@Description("The scan of a source file into the project graph")
+@Enabled(false)
+public class SourceFileScanEvent extends jdk.jfr.Event {
+
+    @Label("Source Path")
+    public String sourcePath;
+
+    @Label("Graph Nodes")
+    @Description("The number of nodes of the graph the source file was scanned into, once scanned")
+    public int nodes;
+
+    @Label("Graph Links")
+    @Description("The number of links of the graph the source file was scanned into, once scanned")
+    public int links;
+}
@@ -0,0 +1,36 @@
+package io.github.jtama.openrewrite.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+public class AggregatedLinksReport extends DataTable<AggregatedLinksReport.@NotNull Row> {
+
+    public AggregatedLinksReport(@Nullable Recipe recipe) {
+        super(recipe, "Project packages and artifacts links report", "Records links between packages and between artifacts");
+    }
+
+    public static class Row {
+
+        @Column(displayName = "Level", description = "`package` or `artifact`.")
+        String level;
+
+        @Column(displayName = "Source", description = "The source package name or artifact identifier.")
+        String source;
+
+        @Column(displayName = "Target", description = "The target package name or artifact identifier.")
+        String target;
+
+        @Column(displayName = "Weight", description = "The sum of the weights of the links between their classes.")
+        int weight;
+
+        public Row(String level, Link link) {
+            this.level = level;
+            this.source = link.getSource();
+            this.target = link.getTarget();
+            this.weight = link.getWeight();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.jtama.openrewrite.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+public class AggregatedNodesReport extends DataTable<AggregatedNodesReport.@NotNull Row> {
+
+    public AggregatedNodesReport(@Nullable Recipe recipe) {
+        super(recipe, "Project packages and artifacts nodes report",
+                "Records packages and artifacts, and counts their dependencies to other packages and artifacts.");
+    }
+
+    public static class Row {
+
+        @Column(displayName = "Level", description = "`package` or `artifact`.")
+        String level;
+
+        @Column(displayName = "Name", description = "The package name or the artifact identifier.")
+        String name;
+
+        @Column(displayName = "Artifact ID", description = "The artifact the package belongs to, if it belongs to a single one.")
+        String artifactId;
+
+        @Column(displayName = "Incoming connections", description = "The number of other packages or artifacts pointing to this one.")
+        int incomingConnections;
+
+        @Column(displayName = "Outgoing connections", description = "The number of other packages or artifacts this one points to.")
+        int outgoingConnections;
+
+        public Row(String level, Node node) {
+            this.level = level;
+            this.name = node.getClassName();
+            this.artifactId = node.getArtifactId();
+            this.incomingConnections = node.getIncomingConnections();
+            this.outgoingConnections = node.getOutgoingConnections();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.jtama.openrewrite.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+import io.github.jtama.openrewrite.graph.StronglyConnectedComponents;
+
+public class CyclesReport extends DataTable<CyclesReport.@NotNull Row> {
+
+    public CyclesReport(@Nullable Recipe recipe) {
+        super(recipe, "Cycles report",
+                "Records the dependency cycles, the groups of classes, packages or artifacts that all depend on each other.");
+    }
+
+    public static class Row {
+
+        @Column(displayName = "Level", description = "`class`, `package` or `artifact`.")
+        String level;
+
+        @Column(displayName = "Cycle", description = "The number of the cycle, as shown in the HTML view.")
+        int cycle;
+
+        @Column(displayName = "Size", description = "The number of classes, packages or artifacts in the cycle.")
+        int size;
+
+        @Column(displayName = "Links", description = "The number of links between the members of the cycle.")
+        int links;
+
+        @Column(displayName = "Weight", description = "The sum of the weights of these links.")
+        long weight;
+
+        @Column(displayName = "Members", description = "The class names, package names or artifact identifiers, space separated.")
+        String members;
+
+        public Row(String level, StronglyConnectedComponents.Cycle cycle) {
+            this.level = level;
+            this.cycle = cycle.number();
+            this.size = cycle.members().size();
+            this.links = cycle.links();
+            this.weight = cycle.weight();
+            this.members = String.join(" ", cycle.members());
+        }
+    }
+}
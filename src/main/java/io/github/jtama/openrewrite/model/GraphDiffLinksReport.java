@@ -0,0 +1,47 @@
+package io.github.jtama.openrewrite.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+import io.github.jtama.openrewrite.graph.GraphDiff;
+
+public class GraphDiffLinksReport extends DataTable<GraphDiffLinksReport.@NotNull Row> {
+
+    public GraphDiffLinksReport(@Nullable Recipe recipe) {
+        super(recipe, "Graph diff links report",
+                "Records the links added, removed or whose weight changed since the baseline snapshot.");
+    }
+
+    public static class Row {
+
+        @Column(displayName = "Level", description = "`class`, `package` or `artifact`.")
+        String level;
+
+        @Column(displayName = "Change", description = "`added`, `removed` or `reweighted`.")
+        String change;
+
+        @Column(displayName = "Source", description = "The source class name, package name or artifact identifier.")
+        String source;
+
+        @Column(displayName = "Target", description = "The target class name, package name or artifact identifier.")
+        String target;
+
+        @Column(displayName = "Baseline weight", description = "The weight of the link in the baseline, 0 if it was added.")
+        int baselineWeight;
+
+        @Column(displayName = "Weight", description = "The weight of the link in the current scan, 0 if it was removed.")
+        int weight;
+
+        public Row(String level, GraphDiff.LinkChange link) {
+            this.level = level;
+            this.change = link.change().label();
+            this.source = link.source();
+            this.target = link.target();
+            this.baselineWeight = link.baselineWeight();
+            this.weight = link.weight();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.jtama.openrewrite.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+import io.github.jtama.openrewrite.graph.GraphDiff;
+
+public class GraphDiffNodesReport extends DataTable<GraphDiffNodesReport.@NotNull Row> {
+
+    public GraphDiffNodesReport(@Nullable Recipe recipe) {
+        super(recipe, "Graph diff nodes report",
+                "Records the classes, packages and artifacts added, removed or whose connections changed since the baseline snapshot.");
+    }
+
+    public static class Row {
+
+        @Column(displayName = "Level", description = "`class`, `package` or `artifact`.")
+        String level;
+
+        @Column(displayName = "Change", description = "`added`, `removed` or `reweighted`.")
+        String change;
+
+        @Column(displayName = "Name", description = "The class name, package name or artifact identifier.")
+        String name;
+
+        @Column(displayName = "Baseline incoming connections", description = "The number of incoming connections in the baseline.")
+        int baselineIncoming;
+
+        @Column(displayName = "Incoming connections", description = "The number of incoming connections in the current scan.")
+        int incoming;
+
+        @Column(displayName = "Baseline outgoing connections", description = "The number of outgoing connections in the baseline.")
+        int baselineOutgoing;
+
+        @Column(displayName = "Outgoing connections", description = "The number of outgoing connections in the current scan.")
+        int outgoing;
+
+        public Row(String level, GraphDiff.NodeChange node) {
+            this.level = level;
+            this.change = node.change().label();
+            this.name = node.name();
+            this.baselineIncoming = node.baselineIncoming();
+            this.incoming = node.incoming();
+            this.baselineOutgoing = node.baselineOutgoing();
+            this.outgoing = node.outgoing();
+        }
+    }
+}
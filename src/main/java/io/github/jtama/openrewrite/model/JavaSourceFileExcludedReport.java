@@ -1,5 +1,7 @@
 package io.github.jtama.openrewrite.model;
 
+import java.util.List;
+
 import org.jetbrains.annotations.NotNull;
 import org.jspecify.annotations.Nullable;
 import org.openrewrite.Column;
@@ -16,15 +18,34 @@ public class JavaSourceFileExcludedReport extends DataTable<JavaSourceFileExclud
 
     public static class Row {
 
-        @Column(displayName = "Java source file path", description = "The Java source file path that was excluded.")
+        @Column(displayName = "Java source file path", description = "The Java source file path that was excluded or, when excluded files are aggregated by package, the first ones, space separated.")
         String fileSourcePath;
 
         @Column(displayName = "Package name", description = "The excluded source file's package, if any.")
         String packageName;
 
+        @Column(displayName = "Source files", description = "The number of excluded source files of the row.")
+        long sourceFiles;
+
         public Row(JavaSourceFile javaSourceFile) {
             this.fileSourcePath = javaSourceFile.getSourcePath().toString();
-            this.packageName = javaSourceFile.getPackageDeclaration() == null ? "null"
+            this.packageName = packageName(javaSourceFile);
+            this.sourceFiles = 1;
+        }
+
+        /**
+         * @param packageName The package of the excluded source files.
+         * @param sourceFiles The number of excluded source files in the package.
+         * @param samplePaths The paths of some of them.
+         */
+        public Row(String packageName, long sourceFiles, List<String> samplePaths) {
+            this.fileSourcePath = String.join(" ", samplePaths);
+            this.packageName = packageName;
+            this.sourceFiles = sourceFiles;
+        }
+
+        public static String packageName(JavaSourceFile javaSourceFile) {
+            return javaSourceFile.getPackageDeclaration() == null ? "null"
                     : javaSourceFile.getPackageDeclaration().getPackageName();
         }
     }
@@ -1,17 +1,18 @@
 package io.github.jtama.openrewrite.model;
 
+import java.util.List;
+
 import org.jetbrains.annotations.NotNull;
 import org.jspecify.annotations.Nullable;
 import org.openrewrite.Column;
 import org.openrewrite.DataTable;
 import org.openrewrite.Recipe;
-import org.openrewrite.java.tree.JavaType;
 
 public class JavaTypesNotHandledReport extends DataTable<JavaTypesNotHandledReport.@NotNull Row> {
 
     public JavaTypesNotHandledReport(@Nullable Recipe recipe) {
         super(recipe, "JavaType not handled",
-                "Records the JavaTypes that were not handled by the recipe.");
+                "Records the JavaTypes that were not handled by the recipe, once per type with the number of times it was met.");
     }
 
     public static class Row {
@@ -22,9 +23,17 @@ public class JavaTypesNotHandledReport extends DataTable<JavaTypesNotHandledRepo
         @Column(displayName = "Java type", description = "The unhandled Java Type.")
         String javaType;
 
-        public Row(JavaType javaType) {
-            this.className = javaType.getClass().getName();
-            this.javaType = javaType.toString();
+        @Column(displayName = "Occurrences", description = "The number of times the type was met while scanning.")
+        long occurrences;
+
+        @Column(displayName = "Sample paths", description = "The paths of the first source files the type was met in, space separated.")
+        String samplePaths;
+
+        public Row(String className, String javaType, long occurrences, List<String> samplePaths) {
+            this.className = className;
+            this.javaType = javaType;
+            this.occurrences = occurrences;
+            this.samplePaths = String.join(" ", samplePaths);
         }
     }
 }
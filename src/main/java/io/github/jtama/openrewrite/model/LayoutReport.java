@@ -0,0 +1,41 @@
+package io.github.jtama.openrewrite.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+public class LayoutReport extends DataTable<LayoutReport.@NotNull Row> {
+
+    public LayoutReport(@Nullable Recipe recipe) {
+        super(recipe, "Graph layout report",
+                "Records the cost of the force-directed layout precomputed for the HTML view.");
+    }
+
+    public static class Row {
+
+        @Column(displayName = "Level", description = "`class`, `package` or `artifact`.")
+        String level;
+
+        @Column(displayName = "Nodes", description = "The number of nodes laid out.")
+        int nodes;
+
+        @Column(displayName = "Links", description = "The number of links laid out.")
+        int links;
+
+        @Column(displayName = "Iterations", description = "The number of layout iterations.")
+        int iterations;
+
+        @Column(displayName = "Duration (ms)", description = "The time spent computing the layout, in milliseconds.")
+        long durationMillis;
+
+        public Row(String level, int nodes, int links, int iterations, long durationMillis) {
+            this.level = level;
+            this.nodes = nodes;
+            this.links = links;
+            this.iterations = iterations;
+            this.durationMillis = durationMillis;
+        }
+    }
+}
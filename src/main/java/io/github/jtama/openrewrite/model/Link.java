@@ -2,6 +2,8 @@ package io.github.jtama.openrewrite.model;
 
 import org.openrewrite.Column;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * Represents an interaction between two Java classes.
  */
@@ -13,6 +15,8 @@ public class Link {
     private final String target;
     @Column(displayName = "The link weight", description = "The number of times these to classes relate to each other")
     private int weight;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String change;
 
     /**
      * Constructs a new Link.
@@ -21,9 +25,20 @@ public class Link {
      * @param target The fully qualified name of the target class.
      */
     public Link(String source, String target) {
+        this(source, target, 1); // Start with a base weight
+    }
+
+    /**
+     * Constructs a new Link with its weight.
+     *
+     * @param source The fully qualified name of the source class.
+     * @param target The fully qualified name of the target class.
+     * @param weight The number of interactions between the two classes.
+     */
+    public Link(String source, String target, int weight) {
         this.source = source;
         this.target = target;
-        this.weight = 1; // Start with a base weight
+        this.weight = weight;
     }
 
     public String getSource() {
@@ -38,6 +53,17 @@ public class Link {
         return weight;
     }
 
+    /**
+     * @return How the link changed since the baseline snapshot, if it did.
+     */
+    public String getChange() {
+        return change;
+    }
+
+    public void setChange(String change) {
+        this.change = change;
+    }
+
     /**
      * Increments the weight of the link, representing an additional interaction between the two classes.
      */
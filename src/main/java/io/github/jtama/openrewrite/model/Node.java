@@ -2,6 +2,8 @@ package io.github.jtama.openrewrite.model;
 
 import org.openrewrite.Column;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * Represents a node in the project graph, corresponding to a Java class.
  */
@@ -17,6 +19,18 @@ public class Node {
     private int incomingConnections;
     @Column(displayName = "Outgoing connections", description = "The number of other classes this class points to .")
     private int outgoingConnections;
+    @Column(displayName = "Community", description = "The community of the class, detected with the Louvain method.")
+    private int community;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double x;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double y;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String change;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer cycle;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer droppedClasses;
 
     /**
      * Constructs a new Node.
@@ -31,6 +45,23 @@ public class Node {
         this.outgoingConnections = 0; // Start with a base size
     }
 
+    /**
+     * Constructs a new Node with its connection counts.
+     *
+     * @param className The fully qualified name of the class.
+     * @param packageName The package name of the class.
+     * @param artifactId The artifact the class belongs to, if known.
+     * @param incomingConnections The number of other classes pointing to this class.
+     * @param outgoingConnections The number of other classes this class points to.
+     */
+    public Node(String className, String packageName, String artifactId, int incomingConnections, int outgoingConnections) {
+        this.className = className;
+        this.packageName = packageName;
+        this.artifactId = artifactId;
+        this.incomingConnections = incomingConnections;
+        this.outgoingConnections = outgoingConnections;
+    }
+
     public String getClassName() {
         return className;
     }
@@ -55,6 +86,66 @@ public class Node {
         this.artifactId = groupId;
     }
 
+    public int getCommunity() {
+        return community;
+    }
+
+    public void setCommunity(int community) {
+        this.community = community;
+    }
+
+    /**
+     * @return The precomputed horizontal position of the node in the HTML view, if any.
+     */
+    public Double getX() {
+        return x;
+    }
+
+    /**
+     * @return The precomputed vertical position of the node in the HTML view, if any.
+     */
+    public Double getY() {
+        return y;
+    }
+
+    public void setPosition(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * @return How the node changed since the baseline snapshot, if it did.
+     */
+    public String getChange() {
+        return change;
+    }
+
+    public void setChange(String change) {
+        this.change = change;
+    }
+
+    /**
+     * @return The dependency cycle the node is part of, if any. Cycles are numbered per graph level.
+     */
+    public Integer getCycle() {
+        return cycle;
+    }
+
+    public void setCycle(Integer cycle) {
+        this.cycle = cycle;
+    }
+
+    /**
+     * @return The number of classes of the package node left out of the HTML view by {@code maxNodes}, if any.
+     */
+    public Integer getDroppedClasses() {
+        return droppedClasses;
+    }
+
+    public void setDroppedClasses(Integer droppedClasses) {
+        this.droppedClasses = droppedClasses;
+    }
+
     /**
      * Increments the size of the node, typically representing an additional incoming connection.
      */
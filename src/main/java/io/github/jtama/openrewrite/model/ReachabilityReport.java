@@ -0,0 +1,46 @@
+package io.github.jtama.openrewrite.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+public class ReachabilityReport extends DataTable<ReachabilityReport.@NotNull Row> {
+
+    public ReachabilityReport(@Nullable Recipe recipe) {
+        super(recipe, "Reachability report",
+                "Records the classes reached by the `impactOf` and `dependenciesOf` queries.");
+    }
+
+    public static class Row {
+
+        @Column(displayName = "Query", description = "`impactOf` or `dependenciesOf`.")
+        String query;
+
+        @Column(displayName = "Selector", description = "The class name, package name or artifact identifier the query starts from.")
+        String selector;
+
+        @Column(displayName = "Class name", description = "The fully qualified name of the reached class.")
+        String className;
+
+        @Column(displayName = "Package name", description = "The package of the reached class.")
+        String packageName;
+
+        @Column(displayName = "Artifact ID", description = "The artifact of the reached class, if known.")
+        String artifactId;
+
+        @Column(displayName = "Distance", description = "The number of links from the closest selected class, 0 for the selected classes.")
+        int distance;
+
+        public Row(String query, String selector, String className, String packageName, String artifactId,
+                int distance) {
+            this.query = query;
+            this.selector = selector;
+            this.className = className;
+            this.packageName = packageName;
+            this.artifactId = artifactId;
+            this.distance = distance;
+        }
+    }
+}
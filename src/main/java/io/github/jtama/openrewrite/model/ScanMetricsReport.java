@@ -0,0 +1,37 @@
+package io.github.jtama.openrewrite.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+public class ScanMetricsReport extends DataTable<ScanMetricsReport.@NotNull Row> {
+
+    public ScanMetricsReport(@Nullable Recipe recipe) {
+        super(recipe, "Scan metrics report",
+                "Records scanner callback counts and times, cache hits and misses, graph growth and generate phase times.");
+    }
+
+    public static class Row {
+
+        @Column(displayName = "Category", description = "`callback`, `cache`, `growth` or `generate`.")
+        String category;
+
+        @Column(displayName = "Name", description = "The callback, cache, graph size or phase measured.")
+        String name;
+
+        @Column(displayName = "Count", description = "The number of invocations, hits or misses, or the graph size.")
+        long count;
+
+        @Column(displayName = "Total time (µs)", description = "The cumulative time spent, in microseconds, nested callbacks included.")
+        long totalMicros;
+
+        public Row(String category, String name, long count, long totalMicros) {
+            this.category = category;
+            this.name = name;
+            this.count = count;
+            this.totalMicros = totalMicros;
+        }
+    }
+}
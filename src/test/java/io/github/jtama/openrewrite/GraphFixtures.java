@@ -0,0 +1,73 @@
+package io.github.jtama.openrewrite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.marker.JavaProject;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+import io.github.jtama.openrewrite.graph.DependencyGraph;
+
+/**
+ * Helpers shared by the tests scanning synthetic projects.
+ */
+final class GraphFixtures {
+
+    private GraphFixtures() {
+    }
+
+    /**
+     * Configures the recipe the way rewrite does from {@code rewrite.options}.
+     */
+    static ProjectAerialViewGenerator recipe(Map<String, Object> options) {
+        return StandaloneRun.recipe(options);
+    }
+
+    /**
+     * Parses sources of the {@code com.acme:acme-app} project.
+     */
+    static List<SourceFile> parse(String... sources) {
+        JavaProject javaProject = new JavaProject(UUID.randomUUID(), "acme",
+                new JavaProject.Publication("com.acme", "acme-app", "1"));
+        return JavaParser.fromJavaVersion().build()
+                .parse(new InMemoryExecutionContext(Throwable::printStackTrace), sources)
+                .map(sourceFile -> (SourceFile) sourceFile.withMarkers(sourceFile.getMarkers().add(javaProject)))
+                .toList();
+    }
+
+    /**
+     * An execution context in the first cycle of a recipe run, as data tables expect.
+     */
+    static ExecutionContext ctx() {
+        return StandaloneRun.ctx();
+    }
+
+    /**
+     * Scans the source files one after the other, the way rewrite does.
+     */
+    static GraphScanAccumulator scan(ProjectAerialViewGenerator recipe, List<SourceFile> sourceFiles) {
+        ExecutionContext ctx = ctx();
+        GraphScanAccumulator graph = recipe.getInitialValue(ctx);
+        sourceFiles.forEach(sourceFile -> recipe.getScanner(graph).visit(sourceFile, ctx));
+        return graph;
+    }
+
+    /**
+     * Describes every node and link of a graph, in graph order, one per line.
+     */
+    static List<String> describe(GraphScanAccumulator graph) {
+        List<String> lines = new ArrayList<>();
+        DependencyGraph dependencyGraph = graph.toGraph();
+        dependencyGraph.nodes().forEach(node -> lines.add("node %s %s %s %d %d".formatted(node.getClassName(),
+                node.getPackageName(), node.getArtifactId(), node.getIncomingConnections(), node.getOutgoingConnections())));
+        dependencyGraph.links().forEach(
+                link -> lines.add("link %s %s %d".formatted(link.getSource(), link.getTarget(), link.getWeight())));
+        return lines;
+    }
+}
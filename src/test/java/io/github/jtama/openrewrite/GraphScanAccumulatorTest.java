@@ -0,0 +1,105 @@
+package io.github.jtama.openrewrite;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+import io.github.jtama.openrewrite.graph.DependencyGraph;
+import io.github.jtama.openrewrite.model.Link;
+import io.github.jtama.openrewrite.model.Node;
+
+class GraphScanAccumulatorTest {
+
+    @Test
+    void countsWeightsAndConnections() {
+        GraphScanAccumulator graph = new GraphScanAccumulator();
+        int foo = graph.node("com.yourorg.Foo", "com.yourorg");
+        int bar = graph.node("com.yourorg.Bar", "com.yourorg");
+        graph.declare(foo, "my-app");
+
+        graph.link(foo, bar);
+        graph.link(foo, bar);
+        graph.link(bar, foo);
+
+        assertThat(graph.node("com.yourorg.Foo", "com.yourorg")).isEqualTo(foo);
+        DependencyGraph dependencyGraph = graph.toGraph();
+        assertThat(dependencyGraph.nodes())
+                .extracting(Node::getClassName, Node::getArtifactId, Node::getIncomingConnections, Node::getOutgoingConnections)
+                .containsExactly(tuple("com.yourorg.Foo", "my-app", 1, 1), tuple("com.yourorg.Bar", null, 1, 1));
+        assertThat(dependencyGraph.links())
+                .extracting(Link::getSource, Link::getTarget, Link::getWeight)
+                .containsExactly(tuple("com.yourorg.Foo", "com.yourorg.Bar", 2),
+                        tuple("com.yourorg.Bar", "com.yourorg.Foo", 1));
+        assertThat(dependencyGraph.find("com.yourorg.Baz")).isEqualTo(-1);
+    }
+
+    @Test
+    void splitsTheLinkBudgetBetweenPartialGraphs() {
+        GraphScanAccumulator partial = new GraphScanAccumulator(10).partial(4);
+        int foo = partial.node("com.yourorg.Foo", "com.yourorg");
+        int bar = partial.node("com.yourorg.Bar", "com.yourorg");
+
+        partial.link(foo, bar);
+        assertThat(partial.spilledRuns()).isZero();
+        partial.link(bar, foo);
+        assertThat(partial.spilledRuns()).isOne();
+        partial.deleteSpilledLinks();
+
+        assertThat(new GraphScanAccumulator().partial(1_000).spilledRuns()).isZero();
+    }
+
+    @Test
+    void storesEachLinkOnceAndSumsItsWeights() {
+        String[][] references = referencesTo(50_000);
+
+        GraphScanAccumulator graph = new GraphScanAccumulator();
+        for (String[] reference : references) {
+            graph.link(graph.node(reference[0], "com.acme"), graph.node(reference[1], "com.acme"));
+        }
+
+        // Every link is referenced twice. How the scan time grows is measured by GraphAccumulatorBenchmark.
+        assertThat(graph.toGraph().links())
+                .hasSize(25_000)
+                .allMatch(link -> link.getWeight() == 2)
+                .extracting(link -> link.getSource() + " " + link.getTarget())
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void internsEachNameOnce() {
+        String[][] references = referencesTo(200_000);
+        Set<String> classNames = new HashSet<>();
+
+        GraphScanAccumulator graph = new GraphScanAccumulator();
+        for (String[] reference : references) {
+            graph.link(graph.node(reference[0], "com.acme"), graph.node(reference[1], "com.acme"));
+            classNames.addAll(List.of(reference));
+        }
+        DependencyGraph dependencyGraph = graph.toGraph();
+
+        // The heap the interned layout saves is measured by GraphAccumulatorBenchmark, run with -prof gc.
+        assertThat(graph.nodeCount()).isEqualTo(dependencyGraph.nodeCount()).isEqualTo(classNames.size());
+        assertThat(graph.linkCount()).isEqualTo(dependencyGraph.linkCount()).isEqualTo(100_000);
+        // Every class shares the label of its package.
+        assertThat(dependencyGraph.packages().nodeCount()).isOne();
+        assertThat(dependencyGraph.find("com.acme.Source0")).isZero();
+    }
+
+    /**
+     * Every link is referenced twice, and the number of classes grows with the number of references.
+     */
+    private static String[][] referencesTo(int count) {
+        String[][] references = new String[count][];
+        for (int i = 0; i < count; i++) {
+            int link = i % (count / 2);
+            references[i] = new String[] { "com.acme.Source" + link / 16, "com.acme.Target" + link % 16 + "_" + link / 256 };
+        }
+        return references;
+    }
+}
@@ -0,0 +1,159 @@
+package io.github.jtama.openrewrite;
+
+import static io.github.jtama.openrewrite.GraphFixtures.describe;
+import static io.github.jtama.openrewrite.GraphFixtures.parse;
+import static io.github.jtama.openrewrite.GraphFixtures.scan;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.marker.JavaProject;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+
+class GraphScannerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void linksFromTheInnermostEnclosingClass() {
+        String outer = """
+                package com.acme;
+
+                public class Outer {
+                    public void run() {
+                        new Target().run();
+                        Runnable anonymous = new Runnable() {
+                            public void run() {
+                                Target.stat();
+                            }
+                        };
+                    }
+
+                    public static class Inner {
+                        public void run() {
+                            new Target().run();
+                            new Outer().run();
+                        }
+                    }
+
+                    public void after() {
+                        Target.stat();
+                    }
+                }
+                """;
+        String target = """
+                package com.acme;
+
+                public class Target {
+                    public static void stat() {
+                    }
+
+                    public void run() {
+                        stat();
+                    }
+                }
+                """;
+
+        assertThat(describe(scan(new ProjectAerialViewGenerator(), parse(outer, target)))).containsExactly(
+                "node com.acme.Outer com.acme acme-app 1 2",
+                "node com.acme.Target com.acme acme-app 2 0",
+                // The anonymous class is instantiated by Outer, and its own references are Outer's.
+                "node com.acme.Outer$1 com.acme null 1 0",
+                "node com.acme.Outer$Inner com.acme acme-app 0 2",
+                "link com.acme.Outer com.acme.Target 4",
+                "link com.acme.Outer com.acme.Outer$1 1",
+                "link com.acme.Outer$Inner com.acme.Outer 2",
+                "link com.acme.Outer$Inner com.acme.Target 2");
+    }
+
+    @Test
+    void addsClassesOfAnUnknownArtifactOnlyOnceLinked() {
+        String linked = """
+                package com.acme;
+
+                public class Linked {
+                    Target target = new Target();
+                }
+                """;
+        String isolated = """
+                package com.acme;
+
+                public class Isolated {
+                }
+                """;
+        String target = """
+                package com.acme;
+
+                public class Target {
+                }
+                """;
+        List<SourceFile> sourceFiles = parse(linked, isolated, target).stream()
+                .map(sourceFile -> (SourceFile) sourceFile.withMarkers(sourceFile.getMarkers()
+                        .removeByType(JavaProject.class)))
+                .toList();
+
+        assertThat(describe(scan(GraphFixtures.recipe(Map.of("basePackages", "com.acme")), sourceFiles))).containsExactly(
+                "node com.acme.Linked com.acme null 0 1",
+                "node com.acme.Target com.acme null 1 0",
+                "link com.acme.Linked com.acme.Target 1");
+    }
+
+    @Test
+    void reportsUnhandledTypesAndExcludedSourceFilesOnce() throws IOException {
+        String shapes = """
+                package com.acme;
+
+                import java.io.Serializable;
+
+                public class Shapes {
+                    static class Shape {
+                        int sides;
+                    }
+
+                    static class Square extends Shape implements Serializable {
+                    }
+
+                    static class Triangle extends Shape implements Serializable {
+                    }
+
+                    int sides(boolean square) {
+                        return (square ? new Square() : new Triangle()).sides + (square ? new Triangle() : new Square()).sides;
+                    }
+                }
+                """;
+        String excluded = """
+                package org.other;
+
+                public class Excluded%d {
+                }
+                """;
+        ProjectAerialViewGenerator recipe = GraphFixtures.recipe(Map.of("generateHTMLView", false,
+                "excludedSourceFilesByPackage", true));
+        List<SourceFile> sourceFiles = GraphFixtures.parse(shapes, excluded.formatted(1), excluded.formatted(2),
+                excluded.formatted(3), excluded.formatted(4));
+        ExecutionContext ctx = GraphFixtures.ctx();
+        GraphScanAccumulator graph = recipe.getInitialValue(ctx);
+        sourceFiles.forEach(sourceFile -> recipe.getScanner(graph).visit(sourceFile, ctx));
+
+        recipe.generate(graph, ctx);
+        StandaloneRun.writeDataTables(ctx, directory);
+
+        assertThat(Files.readAllLines(directory.resolve("io.github.jtama.openrewrite.model.JavaTypesNotHandledReport.csv")))
+                .hasSize(3)
+                .last().isEqualTo(
+                        "org.openrewrite.java.tree.JavaType$Intersection,com.acme.Shapes$Shape & java.io.Serializable,2,com/acme/Shapes.java");
+        assertThat(Files.readAllLines(directory.resolve("io.github.jtama.openrewrite.model.JavaSourceFileExcludedReport.csv")))
+                .hasSize(3)
+                .last().isEqualTo("org/other/Excluded1.java org/other/Excluded2.java org/other/Excluded3.java,org.other,4");
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.jtama.openrewrite;
+
+import static io.github.jtama.openrewrite.GraphFixtures.describe;
+import static io.github.jtama.openrewrite.GraphFixtures.parse;
+import static io.github.jtama.openrewrite.GraphFixtures.scan;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.SourceFile;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+import io.github.jtama.openrewrite.graph.GraphSnapshot;
+
+class GraphSnapshotMergeTest {
+
+    private static final String FOO = """
+            package com.acme;
+
+            public class Foo {
+                public void run() {
+                    new Bar().run();
+                }
+            }
+            """;
+
+    private static final String BAR = """
+            package com.acme;
+
+            public class Bar {
+                public void run() {
+                }
+            }
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void mergedSnapshotsMatchASingleScan() throws IOException {
+        ProjectAerialViewGenerator recipe = GraphFixtures.recipe(Map.of());
+        Path foo = directory.resolve("foo.graph");
+        Path bar = directory.resolve("bar.graph");
+        List<SourceFile> sourceFiles = parse(FOO, BAR);
+        GraphSnapshot.write(scan(recipe, sourceFiles.subList(0, 1)).toGraph(), foo);
+        GraphSnapshot.write(scan(recipe, sourceFiles.subList(1, 2)).toGraph(), bar);
+
+        GraphScanAccumulator merged = GraphSnapshotMerge.merge(recipe, List.of(foo, bar));
+
+        assertThat(describe(merged)).isEqualTo(describe(scan(recipe, sourceFiles)));
+    }
+
+    @Test
+    void spillsMergedLinksBeyondTheRecipeBudget() throws IOException {
+        ProjectAerialViewGenerator recipe = GraphFixtures.recipe(Map.of());
+        Path foo = directory.resolve("foo.graph");
+        Path bar = directory.resolve("bar.graph");
+        List<SourceFile> sourceFiles = parse(FOO, BAR);
+        GraphSnapshot.write(scan(recipe, sourceFiles.subList(0, 1)).toGraph(), foo);
+        GraphSnapshot.write(scan(recipe, sourceFiles.subList(1, 2)).toGraph(), bar);
+
+        GraphScanAccumulator merged = GraphSnapshotMerge.merge(GraphFixtures.recipe(Map.of("maxLinksInMemory", 1)),
+                List.of(foo, bar));
+
+        assertThat(merged.spilledRuns()).isPositive();
+        assertThat(describe(merged)).isEqualTo(describe(scan(recipe, sourceFiles)));
+        merged.deleteSpilledLinks();
+    }
+
+    @Test
+    void rendersTheUsualOutputs() throws IOException {
+        Path snapshot = directory.resolve("foo.graph");
+        GraphSnapshot.write(scan(GraphFixtures.recipe(Map.of()), parse(FOO, BAR)).toGraph(), snapshot);
+        Path output = directory.resolve("merged");
+
+        GraphSnapshotMerge.main(new String[] { "maxNodes=10", output.toString(), snapshot.toString() });
+
+        assertThat(output.resolve("class-diagram.html")).exists();
+        assertThat(GraphSnapshot.open(output.resolve("class-diagram.graph")).nodeCount()).isEqualTo(2);
+        assertThat(Files.readAllLines(output.resolve("datatables/io.github.jtama.openrewrite.model.LinksReport.csv")))
+                .hasSize(3)
+                .last().isEqualTo("com.acme.Foo,com.acme.Bar,2");
+    }
+
+    @Test
+    void highlightsTheChangesSinceABaseline() throws IOException {
+        ProjectAerialViewGenerator recipe = GraphFixtures.recipe(Map.of());
+        List<SourceFile> sourceFiles = parse(FOO, BAR);
+        Path baseline = directory.resolve("baseline.graph");
+        Path current = directory.resolve("current.graph");
+        GraphSnapshot.write(scan(recipe, sourceFiles.subList(1, 2)).toGraph(), baseline);
+        GraphSnapshot.write(scan(recipe, sourceFiles).toGraph(), current);
+        Path output = directory.resolve("diff");
+
+        GraphSnapshotMerge.main(new String[] { "baselineSnapshot=" + baseline, output.toString(), current.toString() });
+
+        assertThat(Files.readAllLines(output.resolve("datatables/io.github.jtama.openrewrite.model.GraphDiffLinksReport.csv")))
+                .contains("class,added,com.acme.Foo,com.acme.Bar,0,2");
+        assertThat(Files.readString(output.resolve("class-diagram.html")))
+                .contains("\"diff\":{\"class\":{\"nodes\":{\"added\":1,\"removed\":0,\"reweighted\":1}")
+                .contains("\"change\":\"added\"");
+    }
+}
@@ -0,0 +1,254 @@
+package io.github.jtama.openrewrite;
+
+import static io.github.jtama.openrewrite.GraphFixtures.ctx;
+import static io.github.jtama.openrewrite.GraphFixtures.describe;
+import static io.github.jtama.openrewrite.GraphFixtures.parse;
+import static io.github.jtama.openrewrite.GraphFixtures.recipe;
+import static io.github.jtama.openrewrite.GraphFixtures.scan;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.marker.JavaProject;
+import org.openrewrite.java.marker.JavaSourceSet;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+
+class IncrementalScanSnapshotTest {
+
+    private static final String FOO = """
+            package com.acme;
+
+            public class Foo {
+                public void run() {
+                    new Bar().run();
+                }
+            }
+            """;
+
+    private static final String BAR = """
+            package com.acme;
+
+            public class Bar {
+                public void run() {
+                }
+            }
+            """;
+
+    private static final String BAZ = """
+            package com.acme.baz;
+
+            public class Baz {
+                com.acme.Bar bar = new com.acme.Bar();
+                com.acme.Foo foo = new com.acme.Foo();
+            }
+            """;
+
+    private static final String BAZ_CHANGED = """
+            package com.acme.baz;
+
+            public class Baz {
+                com.acme.Foo foo = new com.acme.Foo();
+
+                void run() {
+                    foo.run();
+                    foo.run();
+                }
+            }
+            """;
+
+    private static final String OUTSIDE = """
+            package org.other;
+
+            public class Outside {
+                com.acme.Foo foo = new com.acme.Foo();
+            }
+            """;
+
+    @TempDir
+    Path snapshotDir;
+
+    @Test
+    void rescansOnlyChangedFiles() {
+        Map<String, Object> options = Map.of("incrementalSnapshot", snapshotDir.resolve("snapshot.json").toString(),
+                "generateHTMLView", false);
+        // Sources are only in memory: Bar is visited first, so that its content is known when Foo is.
+        run(recipe(options), parse(BAR, FOO, BAZ, OUTSIDE));
+
+        List<SourceFile> changed = parse(BAR, FOO, BAZ_CHANGED, OUTSIDE);
+        GraphScanAccumulator incremental = run(recipe(options), changed);
+
+        assertThat(incremental.incrementalScan.reused()).isEqualTo(3);
+        assertThat(describe(incremental)).isEqualTo(describe(scan(new ProjectAerialViewGenerator(), changed)));
+    }
+
+    @Test
+    void hashesTheTreeRatherThanTheFileOnDisk() throws IOException {
+        Map<String, Object> options = Map.of("incrementalSnapshot", snapshotDir.resolve("snapshot.json").toString(),
+                "generateHTMLView", false);
+        Path baz = Files.writeString(snapshotDir.resolve("Baz.java"), BAZ);
+        run(recipe(options), atPath(parse(BAR, FOO, BAZ), baz));
+
+        // An earlier recipe changed the tree, the file on disk is left as it was.
+        List<SourceFile> changed = atPath(parse(BAR, FOO, BAZ_CHANGED), baz);
+        GraphScanAccumulator incremental = run(recipe(options), changed);
+
+        assertThat(incremental.incrementalScan.reused()).isEqualTo(2);
+        assertThat(describe(incremental)).isEqualTo(describe(scan(new ProjectAerialViewGenerator(), changed)));
+    }
+
+    @Test
+    void ignoresSnapshotOfAnotherConfiguration() {
+        String snapshot = snapshotDir.resolve("snapshot.json").toString();
+        run(recipe(Map.of("incrementalSnapshot", snapshot, "generateHTMLView", false)), parse(FOO, BAR, OUTSIDE));
+
+        List<SourceFile> sourceFiles = parse(FOO, BAR, OUTSIDE);
+        ProjectAerialViewGenerator otherPackages = recipe(Map.of("incrementalSnapshot", snapshot, "generateHTMLView", false,
+                "basePackages", "com.acme:org.other"));
+        GraphScanAccumulator graph = run(otherPackages, sourceFiles);
+
+        assertThat(graph.incrementalScan.reused()).isZero();
+        assertThat(describe(graph)).isEqualTo(describe(scan(recipe(Map.of("basePackages", "com.acme:org.other")),
+                sourceFiles)));
+    }
+
+    @Test
+    void comparesTheBasePackagesDefaultingToTheGroupId() {
+        String snapshot = snapshotDir.resolve("snapshot.json").toString();
+        run(recipe(Map.of("incrementalSnapshot", snapshot, "generateHTMLView", false)), parse(BAR, FOO, OUTSIDE));
+
+        GraphScanAccumulator sameGroupId = run(recipe(Map.of("incrementalSnapshot", snapshot, "generateHTMLView", false,
+                "basePackages", "com.acme")), parse(BAR, FOO, OUTSIDE));
+        List<SourceFile> otherGroupId = withGroupId(parse(BAR, FOO, OUTSIDE), "org.other");
+        GraphScanAccumulator graph = run(recipe(Map.of("incrementalSnapshot", snapshot, "generateHTMLView", false)),
+                otherGroupId);
+
+        assertThat(sameGroupId.incrementalScan.reused()).isEqualTo(3);
+        assertThat(graph.incrementalScan.reused()).isZero();
+        assertThat(describe(graph)).isEqualTo(describe(scan(new ProjectAerialViewGenerator(), otherGroupId)));
+    }
+
+    @Test
+    void rescansFilesUsingAClassThatMoved() {
+        String user = """
+                package com.acme.app;
+
+                import com.acme.model.*;
+                import org.other.*;
+
+                public class User {
+                    Moving moving = new Moving();
+                }
+                """;
+        String moving = """
+                package %s;
+
+                public class Moving {
+                }
+                """;
+        Map<String, Object> options = Map.of("incrementalSnapshot", snapshotDir.resolve("snapshot.json").toString(),
+                "generateHTMLView", false);
+        run(recipe(options), parse(moving.formatted("com.acme.model"), user));
+
+        // The class moves into an excluded package, the file using it does not change.
+        List<SourceFile> moved = parse(moving.formatted("org.other"), user);
+        GraphScanAccumulator incremental = run(recipe(options), moved);
+
+        assertThat(incremental.incrementalScan.reused()).isZero();
+        assertThat(describe(incremental)).isEqualTo(describe(scan(new ProjectAerialViewGenerator(), moved)))
+                .noneMatch(line -> line.startsWith("link"));
+    }
+
+    @Test
+    void rescansFilesWhoseClasspathChanged() {
+        Map<String, Object> options = Map.of("incrementalSnapshot", snapshotDir.resolve("snapshot.json").toString(),
+                "generateHTMLView", false);
+        run(recipe(options), withClasspath(parse(BAR, FOO), "com.acme:lib:1"));
+
+        GraphScanAccumulator sameClasspath = run(recipe(options), withClasspath(parse(BAR, FOO), "com.acme:lib:1"));
+        GraphScanAccumulator otherClasspath = run(recipe(options), withClasspath(parse(BAR, FOO), "com.acme:lib:2"));
+
+        assertThat(sameClasspath.incrementalScan.reused()).isEqualTo(2);
+        assertThat(otherClasspath.incrementalScan.reused()).isZero();
+    }
+
+    @Test
+    void replaysUnhandledTypes() throws IOException {
+        String shapes = """
+                package com.acme;
+
+                import java.io.Serializable;
+
+                public class Shapes {
+                    static class Shape {
+                        int sides;
+                    }
+
+                    static class Square extends Shape implements Serializable {
+                    }
+
+                    static class Triangle extends Shape implements Serializable {
+                    }
+
+                    int sides(boolean square) {
+                        return (square ? new Square() : new Triangle()).sides;
+                    }
+                }
+                """;
+        Map<String, Object> options = Map.of("incrementalSnapshot", snapshotDir.resolve("snapshot.json").toString(),
+                "generateHTMLView", false);
+        run(recipe(options), parse(shapes));
+
+        ExecutionContext ctx = ctx();
+        ProjectAerialViewGenerator recipe = recipe(options);
+        GraphScanAccumulator graph = scan(recipe, parse(shapes));
+        recipe.generate(graph, ctx);
+        StandaloneRun.writeDataTables(ctx, snapshotDir);
+
+        assertThat(graph.incrementalScan.reused()).isEqualTo(1);
+        assertThat(Files.readAllLines(snapshotDir.resolve("io.github.jtama.openrewrite.model.JavaTypesNotHandledReport.csv")))
+                .last().isEqualTo(
+                        "org.openrewrite.java.tree.JavaType$Intersection,com.acme.Shapes$Shape & java.io.Serializable,1,com/acme/Shapes.java");
+    }
+
+    private static List<SourceFile> withClasspath(List<SourceFile> sourceFiles, String dependency) {
+        JavaSourceSet sourceSet = new JavaSourceSet(UUID.randomUUID(), "main", List.of(), Map.of(dependency, List.of()));
+        return sourceFiles.stream()
+                .map(sourceFile -> (SourceFile) sourceFile.withMarkers(sourceFile.getMarkers().add(sourceSet)))
+                .toList();
+    }
+
+    /**
+     * Moves the last source file to an absolute path.
+     */
+    private static List<SourceFile> atPath(List<SourceFile> sourceFiles, Path path) {
+        List<SourceFile> moved = new ArrayList<>(sourceFiles);
+        moved.set(moved.size() - 1, moved.getLast().withSourcePath(path));
+        return moved;
+    }
+
+    private static List<SourceFile> withGroupId(List<SourceFile> sourceFiles, String groupId) {
+        JavaProject javaProject = new JavaProject(UUID.randomUUID(), "other",
+                new JavaProject.Publication(groupId, "other-app", "1"));
+        return sourceFiles.stream()
+                .map(sourceFile -> (SourceFile) sourceFile.withMarkers(sourceFile.getMarkers()
+                        .removeByType(JavaProject.class).add(javaProject)))
+                .toList();
+    }
+
+    private static GraphScanAccumulator run(ProjectAerialViewGenerator recipe, List<SourceFile> sourceFiles) {
+        GraphScanAccumulator graph = scan(recipe, sourceFiles);
+        recipe.generate(graph, ctx());
+        return graph;
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.jtama.openrewrite;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class PackageMatcherTest {
+
+    @Test
+    void matchesBasePackagesAndTheirSubPackagesOnly() {
+        PackageMatcher matcher = PackageMatcher.of(List.of("com.acme", " io.github.jtama. ", "com.acme.order", "org.foo.*"));
+
+        assertThat(matcher.packages()).containsExactly("com.acme", "io.github.jtama", "com.acme.order", "org.foo");
+        assertThat(matcher.matches("com.acme")).isTrue();
+        assertThat(matcher.matches("com.acme.order.api")).isTrue();
+        assertThat(matcher.matches("io.github.jtama.openrewrite")).isTrue();
+        assertThat(matcher.matches("org.foo")).isTrue();
+        assertThat(matcher.matches("com.acmeish")).isFalse();
+        assertThat(matcher.matches("com.other.com.acme")).isFalse();
+        assertThat(matcher.matches("com")).isFalse();
+        assertThat(matcher.matches("io.github")).isFalse();
+        assertThat(matcher.matches("")).isFalse();
+        // Cached verdicts are the same.
+        assertThat(matcher.matches("com.acme.order.api")).isTrue();
+        assertThat(matcher.matches("com.acmeish")).isFalse();
+    }
+
+    @Test
+    void matchesNothingWithoutBasePackages() {
+        PackageMatcher matcher = PackageMatcher.of(List.of("", " "));
+
+        assertThat(matcher.isEmpty()).isTrue();
+        assertThat(matcher.matches("com.acme")).isFalse();
+    }
+}
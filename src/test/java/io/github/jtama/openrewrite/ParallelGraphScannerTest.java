@@ -0,0 +1,127 @@
+package io.github.jtama.openrewrite;
+
+import static io.github.jtama.openrewrite.GraphFixtures.describe;
+import static io.github.jtama.openrewrite.GraphFixtures.parse;
+import static io.github.jtama.openrewrite.GraphFixtures.scan;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+
+class ParallelGraphScannerTest {
+
+    private static final int CLASSES = 150;
+
+    private static List<SourceFile> sourceFiles;
+
+    @BeforeAll
+    static void parseSyntheticProject() {
+        String[] sources = new String[CLASSES];
+        for (int i = 0; i < CLASSES; i++) {
+            int a = (i * 7 + 1) % CLASSES;
+            int b = (i * 13 + 5) % CLASSES;
+            sources[i] = """
+                    package com.acme.m%1$d;
+
+                    public class C%2$d {
+                        public static int COUNT = 0;
+                        public com.acme.m%3$d.C%4$d field = new com.acme.m%3$d.C%4$d();
+
+                        public static void stat() {
+                        }
+
+                        public void run() {
+                            field.run();
+                            com.acme.m%5$d.C%6$d.stat();
+                            Runnable r = com.acme.m%5$d.C%6$d::stat;
+                            int count = com.acme.m%5$d.C%6$d.COUNT + com.acme.m%3$d.C%4$d.COUNT;
+                        }
+                    }
+                    """.formatted(i % 6, i, a % 6, a, b % 6, b);
+        }
+        sourceFiles = parse(sources);
+    }
+
+    @Test
+    void parallelScanMatchesSerialScan() {
+        List<String> expected = describe(serialScan());
+        assertThat(expected).hasSizeGreaterThan(CLASSES * 2);
+
+        for (int run = 0; run < 10; run++) {
+            for (ParallelGraphScanner.Mode mode : ParallelGraphScanner.Mode.values()) {
+                ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+                GraphScanAccumulator graph = new ParallelGraphScanner(new ProjectAerialViewGenerator(), mode, 1 + run * 3)
+                        .scan(sourceFiles, new GraphScanAccumulator(), ctx);
+                assertThat(describe(graph)).as("%s scan with batches of %d", mode, 1 + run * 3).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void partialGraphsSpillTheirShareOfTheLinks() {
+        List<String> expected = describe(serialScan());
+        ProjectAerialViewGenerator recipe = GraphFixtures.recipe(Map.of("maxLinksInMemory", 200));
+
+        for (ParallelGraphScanner.Mode mode : ParallelGraphScanner.Mode.values()) {
+            ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+            GraphScanAccumulator graph = new ParallelGraphScanner(recipe, mode, 10).scan(sourceFiles,
+                    recipe.newAccumulator(), ctx);
+            // 15 batches share 200 links, so each batch of 10 classes spills.
+            assertThat(describe(graph)).as("%s scan", mode).isEqualTo(expected);
+            assertThat(graph.spilledRuns()).isPositive();
+            graph.deleteSpilledLinks();
+        }
+    }
+
+    @Test
+    void concurrentScannersShareOneAccumulator() throws Exception {
+        List<String> expected = describe(serialScan());
+        ProjectAerialViewGenerator recipe = new ProjectAerialViewGenerator();
+        GraphScanAccumulator graph = new GraphScanAccumulator();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> scans = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                scans.add(executor.submit(() -> {
+                    start.await();
+                    ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+                    for (int i = 0; i < sourceFiles.size(); i++) {
+                        recipe.getScanner(graph).visit(sourceFiles.get((i + offset * 17) % sourceFiles.size()), ctx);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> scan : scans) {
+                scan.get();
+            }
+        }
+
+        // Every file was scanned once per thread: same nodes and links, weights multiplied by the number of threads.
+        List<String> expectedWeights = expected.stream()
+                .map(line -> line.startsWith("link ") ? line.substring(0, line.lastIndexOf(' ') + 1)
+                        + Integer.parseInt(line.substring(line.lastIndexOf(' ') + 1)) * threads : line)
+                .sorted()
+                .toList();
+        assertThat(describe(graph).stream().sorted().toList()).isEqualTo(expectedWeights);
+    }
+
+    private static GraphScanAccumulator serialScan() {
+        return scan(new ProjectAerialViewGenerator(), sourceFiles);
+    }
+}
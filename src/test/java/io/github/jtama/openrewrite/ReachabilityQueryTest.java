@@ -0,0 +1,70 @@
+package io.github.jtama.openrewrite;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.ExecutionContext;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+import io.github.jtama.openrewrite.metrics.ScanMetrics;
+
+class ReachabilityQueryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reportsAndShowsTheClassesReachedByTheQueries() throws IOException {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        int order = accumulator.node("com.acme.order.Order", "com.acme.order");
+        int line = accumulator.node("com.acme.order.OrderLine", "com.acme.order");
+        int money = accumulator.node("com.acme.common.Money", "com.acme.common");
+        int invoice = accumulator.node("com.acme.billing.Invoice", "com.acme.billing");
+        int customer = accumulator.node("com.acme.billing.Customer", "com.acme.billing");
+        accumulator.declare(customer, "acme-billing");
+        accumulator.link(order, line);
+        accumulator.link(line, money);
+        accumulator.link(invoice, order);
+        accumulator.link(invoice, customer);
+        ProjectAerialViewGenerator recipe = GraphFixtures.recipe(Map.of("impactOf", "com.acme.order.OrderLine",
+                "dependenciesOf", "acme-billing", "restrictToQueries", true));
+        ExecutionContext ctx = StandaloneRun.ctx();
+
+        recipe.render(accumulator.toGraph(), ScanMetrics.DISABLED, ctx, directory);
+        StandaloneRun.writeDataTables(ctx, directory);
+
+        assertThat(Files.readAllLines(directory.resolve("io.github.jtama.openrewrite.model.ReachabilityReport.csv")))
+                .containsSequence(
+                        "impactOf,com.acme.order.OrderLine,com.acme.order.Order,com.acme.order,,1",
+                        "impactOf,com.acme.order.OrderLine,com.acme.order.OrderLine,com.acme.order,,0",
+                        "impactOf,com.acme.order.OrderLine,com.acme.billing.Invoice,com.acme.billing,,2",
+                        "dependenciesOf,acme-billing,com.acme.billing.Customer,com.acme.billing,acme-billing,0")
+                .hasSize(6);
+        // Money is reached by no query.
+        assertThat(Files.readAllLines(directory.resolve("io.github.jtama.openrewrite.model.NodesReport.csv")))
+                .hasSize(6)
+                .noneMatch(row -> row.contains("Money"));
+    }
+
+    @Test
+    void selectsClassesPackagesAndArtifacts() {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        accumulator.node("com.acme.order.Order", "com.acme.order");
+        accumulator.node("com.acme.order.line.OrderLine", "com.acme.order.line");
+        accumulator.declare(accumulator.node("com.acme.orders.Orders", "com.acme.orders"), "acme-order");
+
+        assertThat(ProjectAerialViewGenerator.select(accumulator.toGraph(), "com.acme.order").stream().boxed().toList())
+                .isEqualTo(List.of(0, 1));
+        assertThat(ProjectAerialViewGenerator.select(accumulator.toGraph(), "acme-order").stream().boxed().toList())
+                .isEqualTo(List.of(2));
+        assertThat(ProjectAerialViewGenerator.select(accumulator.toGraph(), "com.acme.order.Order").stream().boxed()
+                .toList()).isEqualTo(List.of(0));
+    }
+}
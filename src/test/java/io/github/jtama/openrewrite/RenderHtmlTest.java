@@ -0,0 +1,228 @@
+package io.github.jtama.openrewrite;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphLevel;
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+import io.github.jtama.openrewrite.graph.DependencyGraph;
+import io.github.jtama.openrewrite.graph.StronglyConnectedComponents.Cycle;
+import io.github.jtama.openrewrite.metrics.ScanMetrics;
+import io.github.jtama.openrewrite.model.Node;
+
+class RenderHtmlTest {
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    void streamsGraphDataInPlaceOfThePlaceholder() throws IOException {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        int foo = accumulator.node("com.acme.Foo", "com.acme");
+        int bar = accumulator.node("com.acme.bar.Bar", "com.acme.bar");
+        accumulator.declare(foo, "acme-app");
+        accumulator.link(foo, bar, 3);
+        accumulator.link(bar, foo);
+        DependencyGraph graph = accumulator.toGraph();
+        Path target = outputDir.resolve("class-diagram.html");
+
+        GraphLevel classes = GraphLevel.of(graph);
+        GraphLevel packages = GraphLevel.of(graph.packages());
+        new ProjectAerialViewGenerator().renderHtml(classes, Map.of("package", packages), target);
+
+        // The levels first, then the classes of each package with the links from or to them.
+        Map<String, Object> levels = new LinkedHashMap<>();
+        levels.put("levels", Map.of("package", graphData(packages)));
+        levels.put("canvasNodes", ProjectAerialViewGenerator.CANVAS_NODES);
+        levels.put("packages", List.of("com.acme", "com.acme.bar"));
+        Map<String, Object> acme = new LinkedHashMap<>();
+        acme.put("package", "com.acme");
+        acme.put("packageOf", Map.of("com.acme.bar.Bar", "com.acme.bar"));
+        acme.putAll(graphData(new GraphLevel(classes.nodes().subList(0, 1), classes.links(), List.of())));
+        Map<String, Object> acmeBar = new LinkedHashMap<>();
+        acmeBar.put("package", "com.acme.bar");
+        acmeBar.put("packageOf", Map.of("com.acme.Foo", "com.acme"));
+        acmeBar.putAll(graphData(new GraphLevel(classes.nodes().subList(1, 2), classes.links(), List.of())));
+        ObjectMapper mapper = new ObjectMapper();
+        try (InputStream template = ProjectAerialViewGenerator.class.getResourceAsStream("template.html")) {
+            String expected = new String(template.readAllBytes(), StandardCharsets.UTF_8)
+                    .replace("'{{graphData}}'", "json', '" + mapper.writeValueAsString(levels) + "', '', '"
+                            + mapper.writeValueAsString(acme) + "', '', '" + mapper.writeValueAsString(acmeBar));
+            assertThat(Files.readString(target)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void marksPackagesWhoseClassesWereDropped() throws IOException {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        int order = accumulator.node("com.acme.order.Order", "com.acme.order");
+        accumulator.node("com.acme.order.OrderId", "com.acme.order");
+        int line = accumulator.node("com.acme.order.line.OrderLine", "com.acme.order.line");
+        int money = accumulator.node("com.acme.common.Money", "com.acme.common");
+        accumulator.link(order, line);
+        accumulator.link(line, money);
+        accumulator.link(order, money);
+
+        GraphFixtures.recipe(Map.of("maxNodes", 3)).render(accumulator.toGraph(), ScanMetrics.DISABLED,
+                GraphFixtures.ctx(), outputDir);
+
+        // The package level still counts OrderId, which cannot be shown once the package is expanded.
+        String html = Files.readString(outputDir.resolve("class-diagram.html"));
+        assertThat(html).containsOnlyOnce("\"droppedClasses\":")
+                .containsPattern("\\{[^}]*\"className\":\"com.acme.order\"[^}]*\"droppedClasses\":1}")
+                .doesNotContain("OrderId");
+    }
+
+    @Test
+    void leavesTheRendererToTheViewOfEachLevel() throws IOException {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        for (int i = 0; i <= ProjectAerialViewGenerator.CANVAS_NODES; i++) {
+            accumulator.node("com.acme.C" + i, "com.acme");
+        }
+        Path target = outputDir.resolve("class-diagram.html");
+
+        DependencyGraph graph = accumulator.toGraph();
+        new ProjectAerialViewGenerator().renderHtml(GraphLevel.of(graph), Map.of("package", GraphLevel.of(graph.packages())),
+                target);
+
+        // The package level is drawn with SVG elements, the class level on a canvas.
+        assertThat(Files.readString(target)).contains("\"canvasNodes\":" + ProjectAerialViewGenerator.CANVAS_NODES)
+                .doesNotContain("\"renderer\"");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void compressesTheGraphDataInChunks() throws IOException {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        for (int i = 0; i < 100; i++) {
+            accumulator.link(accumulator.node("com.acme.C" + i, "com.acme"),
+                    accumulator.node("com.acme.d.D" + i, "com.acme.d"));
+        }
+        DependencyGraph graph = accumulator.toGraph();
+        GraphLevel classes = GraphLevel.of(graph);
+        Map<String, GraphLevel> levels = Map.of("package", GraphLevel.of(graph.packages()));
+        Path plain = outputDir.resolve("plain.html");
+        Path compressed = outputDir.resolve("compressed.html");
+        new ProjectAerialViewGenerator().renderHtml(classes, levels, plain);
+
+        GraphFixtures.recipe(Map.of("htmlViewCompression", "DEFLATE", "htmlViewChunkSize", 255))
+                .renderHtml(classes, levels, compressed);
+
+        String html = Files.readString(compressed);
+        List<String> literals = literals(html);
+        assertThat(literals.getFirst()).isEqualTo("deflate");
+        List<List<String>> parts = parts(literals);
+        // The levels, then one part per package.
+        assertThat(parts).hasSize(3).allMatch(part -> part.size() > 1);
+        // Chunks are rounded down to whole base64 quanta, so that each one decodes on its own.
+        assertThat(parts).allMatch(part -> part.subList(0, part.size() - 1).stream().allMatch(chunk -> chunk.length() == 252));
+        ObjectMapper mapper = new ObjectMapper();
+        List<List<String>> plainParts = parts(literals(Files.readString(plain)));
+        List<String> records = new ArrayList<>();
+        for (int part = 0; part < parts.size(); part++) {
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            for (String chunk : parts.get(part)) {
+                data.write(Base64.getDecoder().decode(chunk));
+            }
+            List<String> partRecords;
+            try (InputStream inflated = new InflaterInputStream(new ByteArrayInputStream(data.toByteArray()))) {
+                partRecords = new String(inflated.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+            }
+            // A header, then one record per node and per link, which sum up to the plain part.
+            Map<String, Object> graphData = mapper.readValue(partRecords.getFirst(), Map.class);
+            if (graphData.get("levels") instanceof List<?> names) {
+                Map<String, Object> levelData = new LinkedHashMap<>();
+                names.forEach(name -> levelData.put((String) name,
+                        graphData(new GraphLevel(new ArrayList<>(), new ArrayList<>(), List.of()))));
+                graphData.put("levels", levelData);
+            } else {
+                graphData.putAll(graphData(new GraphLevel(new ArrayList<>(), new ArrayList<>(), List.of())));
+            }
+            for (String line : partRecords.subList(1, partRecords.size())) {
+                Map<String, Object> record = mapper.readValue(line, Map.class);
+                Map<String, Object> level = record.containsKey("level")
+                        ? (Map<String, Object>) ((Map<String, Object>) graphData.get("levels")).get(record.get("level"))
+                        : graphData;
+                String kind = record.containsKey("node") ? "node" : "link";
+                ((List<Object>) level.get(kind + "s")).add(record.get(kind));
+            }
+            assertThat(graphData).isEqualTo(mapper.readValue(plainParts.get(part).getFirst(), Map.class));
+            records.addAll(partRecords);
+        }
+        // Links between two packages are in the parts of both.
+        assertThat(records).hasSize((1 + 2 + 1) + 2 * (1 + 100 + 100));
+        assertThat(html.length()).isLessThan(Files.readString(plain).length());
+    }
+
+    /**
+     * @return The string literals the graph data is embedded as.
+     */
+    private static List<String> literals(String html) {
+        String head = "readGraphData(['";
+        int start = html.indexOf(head) + head.length();
+        return List.of(html.substring(start, html.indexOf("']);", start)).split("', '", -1));
+    }
+
+    /**
+     * @return The literals of each part, after the format, ended by empty literals.
+     */
+    private static List<List<String>> parts(List<String> literals) {
+        List<List<String>> parts = new ArrayList<>();
+        parts.add(new ArrayList<>());
+        for (String literal : literals.subList(1, literals.size())) {
+            if (literal.isEmpty()) {
+                parts.add(new ArrayList<>());
+            } else {
+                parts.getLast().add(literal);
+            }
+        }
+        return parts;
+    }
+
+    @Test
+    void marksCyclesPassingThroughDroppedClasses() {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        int order = accumulator.node("com.acme.order.Order", "com.acme.order");
+        int line = accumulator.node("com.acme.order.OrderLine", "com.acme.order");
+        int money = accumulator.node("com.acme.common.Money", "com.acme.common");
+        accumulator.link(order, line);
+        accumulator.link(line, money);
+        accumulator.link(money, order);
+        DependencyGraph graph = accumulator.toGraph();
+        BitSet kept = new BitSet();
+        kept.set(order);
+        kept.set(money);
+
+        GraphLevel classes = GraphLevel.of(graph.subgraph(kept), graph);
+
+        assertThat(classes.nodes()).extracting(Node::getCycle).containsExactly(0, 0);
+        assertThat(classes.cycles()).singleElement().extracting(Cycle::members).isEqualTo(
+                List.of("com.acme.order.Order", "com.acme.order.OrderLine", "com.acme.common.Money"));
+    }
+
+    private static Map<String, Object> graphData(GraphLevel level) {
+        Map<String, Object> graphData = new LinkedHashMap<>();
+        graphData.put("nodes", level.nodes());
+        graphData.put("links", level.links());
+        return graphData;
+    }
+}
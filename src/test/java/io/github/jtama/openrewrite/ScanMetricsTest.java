@@ -0,0 +1,68 @@
+package io.github.jtama.openrewrite;
+
+import static io.github.jtama.openrewrite.GraphFixtures.parse;
+import static io.github.jtama.openrewrite.GraphFixtures.scan;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.SourceFile;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+import io.github.jtama.openrewrite.metrics.ScanMetrics;
+import io.github.jtama.openrewrite.metrics.ScanMetrics.Callback;
+import io.github.jtama.openrewrite.metrics.ScanMetrics.Counter;
+
+class ScanMetricsTest {
+
+    private static final String FOO = """
+            package com.acme;
+
+            public class Foo {
+                public void run() {
+                    new Bar().run();
+                    new Bar().run();
+                }
+            }
+            """;
+
+    private static final String BAR = """
+            package com.acme;
+
+            public class Bar {
+                public void run() {
+                }
+            }
+            """;
+
+    @Test
+    void recordsCallbacksAndNodeLookups() {
+        List<SourceFile> sourceFiles = parse(FOO, BAR);
+
+        GraphScanAccumulator graph = scan(GraphFixtures.recipe(Map.of("collectMetrics", true)), sourceFiles);
+
+        ScanMetrics metrics = graph.metrics;
+        assertThat(metrics.isEnabled()).isTrue();
+        assertThat(metrics.sourceFiles()).isEqualTo(2);
+        assertThat(metrics.invocations(Callback.PRE_VISIT)).isEqualTo(2);
+        assertThat(metrics.invocations(Callback.CLASS_DECLARATION)).isEqualTo(2);
+        assertThat(metrics.invocations(Callback.METHOD_INVOCATION)).isEqualTo(2);
+        assertThat(metrics.invocations(Callback.NEW_CLASS)).isEqualTo(2);
+        assertThat(metrics.invocations(Callback.ADD_LINK)).isGreaterThanOrEqualTo(4);
+        // Foo and Bar are each created once, every other lookup finds them.
+        assertThat(metrics.total(Counter.NODE_MISS)).isEqualTo(2);
+        assertThat(metrics.total(Counter.NODE_HIT)).isPositive();
+        assertThat(metrics.rows()).isNotEmpty();
+    }
+
+    @Test
+    void recordsNothingByDefault() {
+        GraphScanAccumulator graph = scan(GraphFixtures.recipe(Map.of()), parse(FOO, BAR));
+
+        assertThat(graph.metrics).isSameAs(ScanMetrics.DISABLED);
+        assertThat(graph.metrics.invocations(Callback.ADD_LINK)).isZero();
+        assertThat(graph.metrics.rows()).isEmpty();
+    }
+}
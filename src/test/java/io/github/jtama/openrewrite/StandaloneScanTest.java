@@ -0,0 +1,149 @@
+package io.github.jtama.openrewrite;
+
+import static io.github.jtama.openrewrite.GraphFixtures.describe;
+import static io.github.jtama.openrewrite.GraphFixtures.parse;
+import static io.github.jtama.openrewrite.GraphFixtures.scan;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.marker.JavaProject;
+
+class StandaloneScanTest {
+
+    private static final int CLASSES = 20;
+
+    private static final JavaProject PROJECT = new JavaProject(UUID.randomUUID(), "acme",
+            new JavaProject.Publication("com.acme", "acme-app", "1"));
+
+    @TempDir
+    static Path directory;
+
+    private static final List<String> sources = new ArrayList<>();
+
+    private static Path sourceRoot;
+
+    private static Path classes;
+
+    @BeforeAll
+    static void writeAndCompileSources() throws IOException {
+        sourceRoot = directory.resolve("src/main/java");
+        classes = directory.resolve("classes");
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < CLASSES; i++) {
+            String source = """
+                    package com.acme.m%1$d;
+
+                    public class C%2$d {
+                        public static void stat() {
+                        }
+
+                        public void run() {
+                            com.acme.m%3$d.C%4$d.stat();
+                            new com.acme.m%5$d.C%6$d().run();
+                        }
+                    }
+                    """.formatted(i % 3, i, (i + 1) % CLASSES % 3, (i + 1) % CLASSES, (i * 7) % CLASSES % 3,
+                    (i * 7) % CLASSES);
+            Path file = sourceRoot.resolve("com/acme/m%d/C%d.java".formatted(i % 3, i));
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, source);
+            sources.add(source);
+            paths.add(file.toString());
+        }
+        paths.addAll(0, List.of("-d", classes.toString()));
+        assertThat(ToolProvider.getSystemJavaCompiler().run(null, null, null, paths.toArray(String[]::new))).isZero();
+    }
+
+    @Test
+    void parallelBatchesMatchASerialScanOfParsedSources() throws IOException {
+        ProjectAerialViewGenerator recipe = GraphFixtures.recipe(Map.of());
+        List<String> expected = describe(scan(recipe, parse(sources.toArray(String[]::new))));
+        assertThat(expected).hasSizeGreaterThan(CLASSES * 2);
+        for (ParallelGraphScanner.Mode mode : ParallelGraphScanner.Mode.values()) {
+            int batchSize = mode == ParallelGraphScanner.Mode.FORK_JOIN ? 4 : 7;
+            // Sources are listed in path order, not in the order they were parsed in above.
+            assertThat(describe(StandaloneScan.scan(recipe, List.of(sourceRoot), List.of(classes), PROJECT,
+                    new ParallelGraphScanner(recipe, mode, batchSize), GraphFixtures.ctx())))
+                    .as("%s scan with batches of %d", mode, batchSize)
+                    .containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    @Test
+    void resolvesReferencesBetweenBatchesWithoutCompiledClasses() throws IOException {
+        ProjectAerialViewGenerator recipe = GraphFixtures.recipe(Map.of());
+        List<String> expected = describe(scan(recipe, parse(sources.toArray(String[]::new))));
+
+        // Each source file is a batch of its own, so every reference crosses batches.
+        List<String> scanned = describe(StandaloneScan.scan(recipe, List.of(sourceRoot), List.of(), PROJECT,
+                new ParallelGraphScanner(recipe, ParallelGraphScanner.Mode.FORK_JOIN, 1), GraphFixtures.ctx()));
+
+        assertThat(scanned).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void scansTestSourcesLikeTheRecipe() throws IOException {
+        Path testRoot = directory.resolve("src/test/java");
+        Path file = testRoot.resolve("com/acme/m0/C0Test.java");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, """
+                package com.acme.m0;
+
+                public class C0Test {
+                    public void run() {
+                        new C0().run();
+                        com.acme.m1.C1.stat();
+                    }
+                }
+                """);
+        List<Path> sourceRoots = List.of(sourceRoot, testRoot);
+        // The recipe sees the parsed sources with the same paths, relative to the project directory.
+        List<SourceFile> parsed = JavaParser.fromJavaVersion().classpath(List.of(classes)).build()
+                .parse(StandaloneScan.javaSources(sourceRoots), Path.of(System.getProperty("user.dir")).toAbsolutePath(),
+                        GraphFixtures.ctx())
+                .map(sourceFile -> (SourceFile) sourceFile.withMarkers(sourceFile.getMarkers().add(PROJECT)))
+                .toList();
+
+        for (boolean includeTests : new boolean[] { true, false }) {
+            ProjectAerialViewGenerator recipe = GraphFixtures.recipe(Map.of("includeTests", includeTests));
+            List<String> expected = describe(scan(recipe, parsed));
+
+            assertThat(describe(StandaloneScan.scan(recipe, sourceRoots, List.of(classes), PROJECT,
+                    new ParallelGraphScanner(recipe, ParallelGraphScanner.Mode.FORK_JOIN, 4), GraphFixtures.ctx())))
+                    .as("includeTests=%s", includeTests)
+                    .containsExactlyInAnyOrderElementsOf(expected);
+            assertThat(expected.stream().anyMatch(line -> line.startsWith("node com.acme.m0.C0Test ")))
+                    .isEqualTo(includeTests);
+        }
+    }
+
+    @Test
+    void rendersTheUsualOutputs() throws IOException {
+        Path output = directory.resolve("output");
+
+        StandaloneScan.main(new String[] { "--classpath=" + classes, "--artifact=com.acme:acme-app", "--batchSize=3",
+                output.toString(), sourceRoot.toString() });
+
+        assertThat(output.resolve("class-diagram.html")).exists();
+        assertThat(Files.readAllLines(output.resolve("datatables/io.github.jtama.openrewrite.model.NodesReport.csv")))
+                .hasSize(CLASSES + 2)
+                .filteredOn(row -> row.startsWith("acme-app,"))
+                .hasSize(CLASSES);
+        assertThat(Files.readAllLines(output.resolve("datatables/io.github.jtama.openrewrite.model.LinksReport.csv")))
+                .contains("com.acme.m0.C0,com.acme.m1.C1,1");
+    }
+}
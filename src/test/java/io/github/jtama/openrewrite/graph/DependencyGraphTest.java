@@ -0,0 +1,54 @@
+package io.github.jtama.openrewrite.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+import io.github.jtama.openrewrite.model.Link;
+import io.github.jtama.openrewrite.model.Node;
+
+class DependencyGraphTest {
+
+    @Test
+    void aggregatesPackagesAndArtifacts() {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        int order = accumulator.node("com.acme.order.Order", "com.acme.order");
+        int orderService = accumulator.node("com.acme.order.OrderService", "com.acme.order");
+        int invoice = accumulator.node("com.acme.billing.Invoice", "com.acme.billing");
+        int money = accumulator.node("com.acme.common.Money", "com.acme.common");
+        accumulator.declare(order, "acme-order");
+        accumulator.declare(orderService, "acme-order");
+        accumulator.declare(invoice, "acme-billing");
+        accumulator.link(orderService, order, 4);
+        accumulator.link(orderService, invoice, 2);
+        accumulator.link(order, invoice, 1);
+        accumulator.link(invoice, order, 1);
+        accumulator.link(order, money, 5);
+        accumulator.link(invoice, money, 3);
+        DependencyGraph graph = accumulator.toGraph();
+
+        DependencyGraph packages = graph.packages();
+        assertThat(packages.nodes())
+                .extracting(Node::getClassName, Node::getArtifactId, Node::getIncomingConnections, Node::getOutgoingConnections)
+                .containsExactly(tuple("com.acme.order", "acme-order", 1, 2),
+                        tuple("com.acme.billing", "acme-billing", 1, 2),
+                        tuple("com.acme.common", null, 2, 0));
+        assertThat(packages.links())
+                .extracting(Link::getSource, Link::getTarget, Link::getWeight)
+                .containsExactly(tuple("com.acme.order", "com.acme.billing", 3),
+                        tuple("com.acme.order", "com.acme.common", 5),
+                        tuple("com.acme.billing", "com.acme.order", 1),
+                        tuple("com.acme.billing", "com.acme.common", 3));
+
+        // Money is never declared, its artifact is unknown.
+        DependencyGraph artifacts = graph.artifacts();
+        assertThat(artifacts.nodes())
+                .extracting(Node::getClassName, Node::getPackageName)
+                .containsExactly(tuple("acme-order", "com.acme.order"), tuple("acme-billing", "com.acme.billing"));
+        assertThat(artifacts.links())
+                .extracting(Link::getSource, Link::getTarget, Link::getWeight)
+                .containsExactly(tuple("acme-order", "acme-billing", 3), tuple("acme-billing", "acme-order", 1));
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.jtama.openrewrite.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+
+class ForceLayoutTest {
+
+    @Test
+    void sameSeedGivesSameLayout() {
+        DependencyGraph graph = twoModules(50);
+
+        assertThat(new ForceLayout(100, 7).layout(graph)).containsExactly(new ForceLayout(100, 7).layout(graph));
+        assertThat(new ForceLayout(100, 7).layout(graph)).isNotEqualTo(new ForceLayout(100, 8).layout(graph));
+    }
+
+    @Test
+    void modulesAreLaidOutApart() {
+        int size = 50;
+        double[] positions = new ForceLayout(300, 42).layout(twoModules(size));
+
+        double inner = 0;
+        double across = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                inner += distance(positions, i, j) + distance(positions, size + i, size + j);
+                across += 2 * distance(positions, i, size + j);
+            }
+        }
+        assertThat(across).isGreaterThan(2 * inner);
+    }
+
+    private static double distance(double[] positions, int node, int other) {
+        return Math.hypot(positions[2 * node] - positions[2 * other], positions[2 * node + 1] - positions[2 * other + 1]);
+    }
+
+    /**
+     * Two modules whose classes use a few classes of their own module, linked by a single reference.
+     */
+    private static DependencyGraph twoModules(int size) {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        for (String module : new String[] { "order", "billing" }) {
+            int first = accumulator.nodeCount();
+            for (int i = 0; i < size; i++) {
+                accumulator.node("com.acme." + module + ".C" + i, "com.acme." + module);
+            }
+            for (int i = 0; i < size; i++) {
+                for (int step = 1; step <= 3; step++) {
+                    accumulator.link(first + i, first + (i * 7 + step) % size);
+                }
+            }
+        }
+        accumulator.link(0, size);
+        return accumulator.toGraph();
+    }
+}
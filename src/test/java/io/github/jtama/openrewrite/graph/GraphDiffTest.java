@@ -0,0 +1,68 @@
+package io.github.jtama.openrewrite.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+import io.github.jtama.openrewrite.graph.GraphDiff.Change;
+import io.github.jtama.openrewrite.graph.GraphDiff.LinkChange;
+import io.github.jtama.openrewrite.graph.GraphDiff.NodeChange;
+
+class GraphDiffTest {
+
+    @Test
+    void reportsAddedRemovedAndReweightedNodesAndLinks() {
+        GraphScanAccumulator baseline = new GraphScanAccumulator();
+        link(baseline, "com.acme.order.Order", "com.acme.common.Money", 3);
+        link(baseline, "com.acme.order.Order", "com.acme.legacy.Cents", 1);
+        link(baseline, "com.acme.billing.Invoice", "com.acme.common.Money", 2);
+        GraphScanAccumulator current = new GraphScanAccumulator();
+        link(current, "com.acme.billing.Invoice", "com.acme.common.Money", 2);
+        link(current, "com.acme.order.Order", "com.acme.common.Money", 8);
+        link(current, "com.acme.order.Order", "com.acme.billing.Invoice", 1);
+
+        GraphDiff diff = GraphDiff.of(baseline.toGraph(), current.toGraph());
+
+        assertThat(diff.nodes()).containsExactly(
+                new NodeChange(Change.REWEIGHTED, "com.acme.billing.Invoice", 0, 1, 1, 1),
+                new NodeChange(Change.REMOVED, "com.acme.legacy.Cents", 1, 0, 0, 0));
+        assertThat(diff.links()).containsExactly(
+                new LinkChange(Change.ADDED, "com.acme.order.Order", "com.acme.billing.Invoice", 0, 1),
+                new LinkChange(Change.REWEIGHTED, "com.acme.order.Order", "com.acme.common.Money", 3, 8),
+                new LinkChange(Change.REMOVED, "com.acme.order.Order", "com.acme.legacy.Cents", 1, 0));
+        assertThat(diff.summary()).containsEntry("links", Map.of("added", 1, "removed", 1, "reweighted", 1));
+    }
+
+    @Test
+    void comparesAggregatedLevels() {
+        GraphScanAccumulator baseline = new GraphScanAccumulator();
+        link(baseline, "com.acme.order.Order", "com.acme.order.OrderLine", 1);
+        GraphScanAccumulator current = new GraphScanAccumulator();
+        link(current, "com.acme.order.Order", "com.acme.order.OrderLine", 1);
+        link(current, "com.acme.order.Order", "com.acme.billing.Invoice", 1);
+
+        GraphDiff diff = GraphDiff.of(baseline.toGraph().packages(), current.toGraph().packages());
+
+        // The new cross-package dependency shows up as an added package link.
+        assertThat(diff.nodes()).containsExactly(new NodeChange(Change.REWEIGHTED, "com.acme.order", 0, 0, 0, 1),
+                new NodeChange(Change.ADDED, "com.acme.billing", 0, 1, 0, 0));
+        assertThat(diff.links()).containsExactly(
+                new LinkChange(Change.ADDED, "com.acme.order", "com.acme.billing", 0, 1));
+    }
+
+    @Test
+    void identicalGraphsHaveNoChanges() {
+        GraphScanAccumulator graph = new GraphScanAccumulator();
+        link(graph, "com.acme.order.Order", "com.acme.common.Money", 3);
+
+        assertThat(GraphDiff.of(graph.toGraph(), graph.toGraph()).isEmpty()).isTrue();
+    }
+
+    private static void link(GraphScanAccumulator graph, String source, String target, int weight) {
+        graph.link(graph.node(source, source.substring(0, source.lastIndexOf('.'))),
+                graph.node(target, target.substring(0, target.lastIndexOf('.'))), weight);
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.jtama.openrewrite.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+import io.github.jtama.openrewrite.model.Link;
+import io.github.jtama.openrewrite.model.Node;
+
+class GraphSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackTheWrittenGraph() throws IOException {
+        DependencyGraph graph = project("acme-order", "com.acme.order.Order", "com.acme.common.Money", 3).toGraph();
+        Path file = directory.resolve("order.graph");
+
+        GraphSnapshot.write(graph, file);
+        GraphSnapshot snapshot = GraphSnapshot.open(file);
+
+        assertThat(snapshot.nodeCount()).isEqualTo(2);
+        assertThat(snapshot.linkCount()).isEqualTo(1);
+        // The package of Order and its artifact are stored once.
+        assertThat(snapshot.stringCount()).isEqualTo(5);
+        assertThat(snapshot.className(1)).isEqualTo("com.acme.common.Money");
+        assertThat(snapshot.artifactId(1)).isNull();
+        assertThat(snapshot.toGraph().nodes()).usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(graph.nodes());
+        assertThat(snapshot.toGraph().links()).usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(graph.links());
+    }
+
+    @Test
+    void replacesTheSnapshotThroughATemporaryFile() throws IOException {
+        Path file = directory.resolve("order.graph");
+        GraphSnapshot.write(project("acme-order", "com.acme.order.Order", "com.acme.common.Money", 3).toGraph(), file);
+
+        GraphSnapshot.write(project("acme-billing", "com.acme.billing.Invoice", "com.acme.common.Money", 2).toGraph(),
+                file);
+
+        assertThat(GraphSnapshot.open(file).className(0)).isEqualTo("com.acme.billing.Invoice");
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).containsExactly(file);
+        }
+    }
+
+    @Test
+    void mergesSnapshotsBySummingWeights() throws IOException {
+        Path order = directory.resolve("order.graph");
+        Path billing = directory.resolve("billing.graph");
+        GraphSnapshot.write(project("acme-order", "com.acme.order.Order", "com.acme.common.Money", 3).toGraph(), order);
+        GraphSnapshot.write(project("acme-billing", "com.acme.billing.Invoice", "com.acme.common.Money", 2).toGraph(),
+                billing);
+        GraphScanAccumulator merged = new GraphScanAccumulator();
+        merged.merge(GraphSnapshot.open(order)).merge(GraphSnapshot.open(billing)).merge(GraphSnapshot.open(order));
+
+        DependencyGraph graph = merged.toGraph();
+
+        assertThat(graph.nodes()).extracting(Node::getClassName, Node::getArtifactId, Node::getIncomingConnections)
+                .containsExactly(tuple("com.acme.order.Order", "acme-order", 0),
+                        tuple("com.acme.common.Money", null, 2),
+                        tuple("com.acme.billing.Invoice", "acme-billing", 0));
+        assertThat(graph.links()).extracting(Link::getSource, Link::getTarget, Link::getWeight)
+                .containsExactly(tuple("com.acme.order.Order", "com.acme.common.Money", 6),
+                        tuple("com.acme.billing.Invoice", "com.acme.common.Money", 2));
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = Files.writeString(directory.resolve("class-diagram.html"), "<html></html>");
+
+        assertThatThrownBy(() -> GraphSnapshot.open(file)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * A project whose only class uses a class of a shared library.
+     */
+    private static GraphScanAccumulator project(String artifactId, String className, String libraryClassName,
+            int weight) {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        int source = accumulator.node(className, className.substring(0, className.lastIndexOf('.')));
+        accumulator.declare(source, artifactId);
+        int target = accumulator.node(libraryClassName, libraryClassName.substring(0, libraryClassName.lastIndexOf('.')));
+        accumulator.link(source, target, weight);
+        return accumulator;
+    }
+}
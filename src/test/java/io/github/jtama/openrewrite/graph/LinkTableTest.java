@@ -0,0 +1,63 @@
+package io.github.jtama.openrewrite.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+class LinkTableTest {
+
+    @Test
+    void spilledLinksReadBackLikeLinksKeptInMemory() {
+        LinkTable inMemory = new LinkTable();
+        try (LinkTable spilling = new LinkTable(640)) {
+            Random random = new Random(42);
+            for (int i = 0; i < 20_000; i++) {
+                int source = random.nextInt(100);
+                int target = random.nextInt(100);
+                int weight = 1 + random.nextInt(3);
+                inMemory.add(source, target, weight);
+                spilling.add(source, target, weight);
+            }
+
+            assertThat(spilling.runCount()).isGreaterThan(1);
+            assertThat(spilling.size()).isGreaterThanOrEqualTo(inMemory.size());
+            assertThat(links(spilling)).isEqualTo(links(inMemory));
+            assertThat(spilling.weight(7, 42)).isEqualTo(inMemory.weight(7, 42));
+            DependencyGraph graph = DependencyGraph.of(new SymbolTable(), new SymbolTable(), new int[100], new int[100],
+                    new int[100], spilling);
+            assertThat(graph.linkCount()).isEqualTo(inMemory.size());
+
+            spilling.close();
+            assertThat(spilling.runCount()).isZero();
+        }
+    }
+
+    @Test
+    void callsTheConsumerWithoutHoldingTheTableLocks() {
+        LinkTable table = new LinkTable();
+        table.add(1, 2, 1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Like a scanner adding links to the table while another one merges it elsewhere.
+            table.forEach((source, target, weight) -> assertThat(executor.submit(() -> table.add(source, target, 1)))
+                    .succeedsWithin(Duration.ofSeconds(5)));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(table.weight(1, 2)).isEqualTo(2);
+    }
+
+    private static Map<Long, Integer> links(LinkTable table) {
+        Map<Long, Integer> links = new HashMap<>();
+        table.forEach((source, target, weight) -> assertThat(links.put((long) source << 32 | target, weight)).isNull());
+        return links;
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.jtama.openrewrite.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+
+class LouvainTest {
+
+    @Test
+    void splitsLooselyCoupledModules() {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        int[] orders = module(accumulator, "com.acme.order", 5);
+        int[] billing = module(accumulator, "com.acme.billing", 5);
+        accumulator.link(orders[0], billing[0]);
+        DependencyGraph graph = accumulator.toGraph();
+
+        int[] communities = Louvain.communities(graph);
+
+        assertThat(communities).containsExactly(0, 0, 0, 0, 0, 1, 1, 1, 1, 1);
+        int[] singletons = new int[graph.nodeCount()];
+        Arrays.setAll(singletons, i -> i);
+        assertThat(Louvain.modularity(graph, communities)).isGreaterThan(0.4)
+                .isGreaterThan(Louvain.modularity(graph, singletons))
+                .isGreaterThan(Louvain.modularity(graph, new int[graph.nodeCount()]));
+    }
+
+    @Test
+    void heavyLinksWeighMore() {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        int[] nodes = new int[6];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = accumulator.node("com.acme.C" + i, "com.acme");
+        }
+        // A ring, where every other link is used much more than its neighbors.
+        for (int i = 0; i < nodes.length; i++) {
+            accumulator.link(nodes[i], nodes[(i + 1) % nodes.length], i % 2 == 0 ? 20 : 1);
+        }
+
+        assertThat(Louvain.communities(accumulator.toGraph())).containsExactly(0, 0, 1, 1, 2, 2);
+    }
+
+    @Test
+    void componentsAreDetectedIndependently() {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        for (int copy = 0; copy < 200; copy++) {
+            int[] orders = module(accumulator, "com.acme.order" + copy, 4);
+            int[] billing = module(accumulator, "com.acme.billing" + copy, 4);
+            accumulator.link(orders[0], billing[0]);
+        }
+        accumulator.node("com.acme.Isolated", "com.acme");
+
+        int[] communities = Louvain.communities(accumulator.toGraph());
+
+        // Every copy is partitioned the same way, with its own communities.
+        int perCopy = communities[7] + 1;
+        for (int node = 0; node < 1600; node++) {
+            assertThat(communities[node]).isEqualTo(communities[node % 8] + perCopy * (node / 8));
+        }
+        assertThat(communities[1600]).isEqualTo(perCopy * 200);
+    }
+
+    /**
+     * Classes of a module all use each other.
+     */
+    private static int[] module(GraphScanAccumulator accumulator, String packageName, int size) {
+        int[] nodes = new int[size];
+        for (int i = 0; i < size; i++) {
+            nodes[i] = accumulator.node(packageName + ".C" + i, packageName);
+        }
+        for (int source : nodes) {
+            for (int target : nodes) {
+                if (source != target) {
+                    accumulator.link(source, target);
+                }
+            }
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.jtama.openrewrite.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+
+class NodeRankingTest {
+
+    @Test
+    void topMatchesAFullSort() {
+        Random random = new Random(7);
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        for (int i = 0; i < 500; i++) {
+            accumulator.node("com.acme.C" + i, "com.acme");
+        }
+        for (int i = 0; i < 3000; i++) {
+            accumulator.link(random.nextInt(500), (int) (500 * Math.pow(random.nextDouble(), 2)), 1 + random.nextInt(3));
+        }
+        DependencyGraph graph = accumulator.toGraph();
+
+        for (NodeRanking ranking : NodeRanking.values()) {
+            double[] scores = ranking.scores(graph);
+            for (int k : new int[] { 0, 1, 37, 250, 500, 600 }) {
+                BitSet sorted = new BitSet();
+                IntStream.range(0, graph.nodeCount())
+                        .boxed()
+                        .sorted(Comparator.comparingDouble((Integer node) -> -scores[node]))
+                        .limit(k)
+                        .forEach(sorted::set);
+                assertThat(ranking.top(graph, k)).as("%s top %d", ranking, k).isEqualTo(sorted);
+            }
+        }
+    }
+
+    @Test
+    void pageRankFavorsClassesUsedByUsedClasses() {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        int service = accumulator.node("com.acme.Service", "com.acme");
+        int core = accumulator.node("com.acme.Core", "com.acme");
+        int util = accumulator.node("com.acme.Util", "com.acme");
+        for (int i = 0; i < 5; i++) {
+            accumulator.link(accumulator.node("com.acme.Controller" + i, "com.acme"), service);
+        }
+        accumulator.link(service, core);
+        accumulator.link(accumulator.node("com.acme.Job", "com.acme"), util);
+        accumulator.link(accumulator.node("com.acme.Task", "com.acme"), util);
+        DependencyGraph graph = accumulator.toGraph();
+
+        assertThat(NodeRanking.PAGE_RANK.top(graph, 2)).isEqualTo(nodes(service, core));
+        assertThat(NodeRanking.DEGREE.top(graph, 2)).isEqualTo(nodes(service, util));
+    }
+
+    @Test
+    void kCoreFavorsDenselyConnectedClasses() {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        int[] clique = new int[4];
+        for (int i = 0; i < clique.length; i++) {
+            clique[i] = accumulator.node("com.acme.Clique" + i, "com.acme");
+        }
+        for (int source : clique) {
+            for (int target : clique) {
+                if (source < target) {
+                    accumulator.link(source, target);
+                }
+            }
+        }
+        int hub = accumulator.node("com.acme.Hub", "com.acme");
+        for (int i = 0; i < 6; i++) {
+            accumulator.link(accumulator.node("com.acme.Leaf" + i, "com.acme"), hub);
+        }
+        DependencyGraph graph = accumulator.toGraph();
+
+        assertThat(NodeRanking.K_CORE.top(graph, 4)).isEqualTo(nodes(clique));
+        assertThat(NodeRanking.DEGREE.top(graph, 1)).isEqualTo(nodes(hub));
+    }
+
+    private static BitSet nodes(int... nodes) {
+        BitSet bitSet = new BitSet();
+        for (int node : nodes) {
+            bitSet.set(node);
+        }
+        return bitSet;
+    }
+}
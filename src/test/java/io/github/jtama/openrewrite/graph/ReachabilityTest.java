@@ -0,0 +1,63 @@
+package io.github.jtama.openrewrite.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.BitSet;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+import io.github.jtama.openrewrite.graph.Reachability.Direction;
+
+class ReachabilityTest {
+
+    @Test
+    void followsLinksInBothDirections() {
+        Reachability reachability = new Reachability(chain());
+
+        // Order -> OrderLine -> Money, Invoice -> Order, Customer alone.
+        assertThat(reachability.distances(Direction.DEPENDENCIES, BitSet.valueOf(new long[] { 0b1 })))
+                .containsExactly(0, 1, 2, -1, -1);
+        assertThat(reachability.distances(Direction.DEPENDENTS, BitSet.valueOf(new long[] { 0b100 })))
+                .containsExactly(2, 1, 0, 3, -1);
+        assertThat(reachability.reached(Direction.DEPENDENCIES, BitSet.valueOf(new long[] { 0b11000 })))
+                .isEqualTo(BitSet.valueOf(new long[] { 0b11111 }));
+    }
+
+    @Test
+    void answersRepeatedQueriesFromTheCache() {
+        Reachability reachability = new Reachability(chain());
+        BitSet seeds = BitSet.valueOf(new long[] { 0b1 });
+
+        int[] first = reachability.distances(Direction.DEPENDENCIES, seeds);
+        seeds.set(4);
+
+        assertThat(reachability.distances(Direction.DEPENDENCIES, BitSet.valueOf(new long[] { 0b1 }))).isSameAs(first);
+        assertThat(reachability.distances(Direction.DEPENDENCIES, seeds)).isNotSameAs(first);
+        assertThat(reachability.distances(Direction.DEPENDENTS, BitSet.valueOf(new long[] { 0b1 }))).isNotSameAs(first);
+    }
+
+    @Test
+    void sharesOneEngineByGraph() {
+        DependencyGraph graph = chain();
+
+        int[] first = graph.reachability().distances(Direction.DEPENDENCIES, BitSet.valueOf(new long[] { 0b1 }));
+
+        assertThat(graph.reachability()).isSameAs(graph.reachability());
+        assertThat(graph.reachability().distances(Direction.DEPENDENCIES, BitSet.valueOf(new long[] { 0b1 })))
+                .isSameAs(first);
+    }
+
+    private static DependencyGraph chain() {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        int order = accumulator.node("com.acme.order.Order", "com.acme.order");
+        int line = accumulator.node("com.acme.order.OrderLine", "com.acme.order");
+        int money = accumulator.node("com.acme.common.Money", "com.acme.common");
+        int invoice = accumulator.node("com.acme.billing.Invoice", "com.acme.billing");
+        accumulator.node("com.acme.billing.Customer", "com.acme.billing");
+        accumulator.link(order, line);
+        accumulator.link(line, money);
+        accumulator.link(invoice, order);
+        return accumulator.toGraph();
+    }
+}
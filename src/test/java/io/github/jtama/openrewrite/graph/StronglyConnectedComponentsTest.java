@@ -0,0 +1,77 @@
+package io.github.jtama.openrewrite.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jtama.openrewrite.ProjectAerialViewGenerator.GraphScanAccumulator;
+import io.github.jtama.openrewrite.graph.StronglyConnectedComponents.Cycle;
+
+class StronglyConnectedComponentsTest {
+
+    @Test
+    void findsTheCyclesOfTheGraph() {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        int order = accumulator.node("com.acme.order.Order", "com.acme.order");
+        int line = accumulator.node("com.acme.order.OrderLine", "com.acme.order");
+        int money = accumulator.node("com.acme.common.Money", "com.acme.common");
+        int invoice = accumulator.node("com.acme.billing.Invoice", "com.acme.billing");
+        int customer = accumulator.node("com.acme.billing.Customer", "com.acme.billing");
+        accumulator.link(order, line, 2);
+        accumulator.link(line, order);
+        accumulator.link(line, money);
+        accumulator.link(invoice, order);
+        accumulator.link(invoice, customer);
+        accumulator.link(customer, invoice, 3);
+        DependencyGraph graph = accumulator.toGraph();
+
+        int[] cycles = StronglyConnectedComponents.cycles(graph);
+
+        assertThat(cycles).containsExactly(0, 0, -1, 1, 1);
+        assertThat(StronglyConnectedComponents.describe(graph, cycles)).containsExactly(
+                new Cycle(0, List.of("com.acme.order.Order", "com.acme.order.OrderLine"), 2, 3),
+                new Cycle(1, List.of("com.acme.billing.Invoice", "com.acme.billing.Customer"), 2, 4));
+        // Packages only depend on each other one way.
+        assertThat(StronglyConnectedComponents.cycles(graph.packages())).containsOnly(-1);
+    }
+
+    @Test
+    void numbersComponentsInReverseTopologicalOrder() {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        for (int i = 0; i < 6; i++) {
+            accumulator.node("com.acme.C" + i, "com.acme");
+        }
+        accumulator.link(0, 1);
+        accumulator.link(1, 2);
+        accumulator.link(2, 1);
+        accumulator.link(2, 3);
+        accumulator.link(4, 0);
+        accumulator.link(5, 4);
+        DependencyGraph graph = accumulator.toGraph();
+
+        int[] components = StronglyConnectedComponents.components(graph);
+
+        graph.forEachLink((source, target, weight) -> assertThat(components[target]).isLessThanOrEqualTo(components[source]));
+        assertThat(components[1]).isEqualTo(components[2]);
+        assertThat(Arrays.stream(components).distinct().count()).isEqualTo(5);
+    }
+
+    @Test
+    void followsLongChainsWithoutRecursing() {
+        GraphScanAccumulator accumulator = new GraphScanAccumulator();
+        int length = 200_000;
+        for (int i = 0; i < length; i++) {
+            accumulator.node("com.acme.C" + i, "com.acme");
+        }
+        for (int i = 0; i < length; i++) {
+            accumulator.link(i, (i + 1) % length);
+        }
+
+        int[] cycles = StronglyConnectedComponents.cycles(accumulator.toGraph());
+
+        assertThat(cycles).containsOnly(0);
+    }
+}